@@ -0,0 +1,26 @@
+#!/bin/sh
+# Package the app as a modular jar and record an AppCDS (class-data sharing) archive of the
+# classes a launch loads, so later launches map them instead of loading and verifying them.
+#
+#   DRIVER_JAR=/path/to/mysql-connector.jar ./appcds.sh
+#
+# The recording run starts the app for real and exits once the first table has loaded, so it
+# needs a display and the database from restaurant.properties. -D options are passed to it.
+# Launch with the archive using exactly the same jars:
+#
+#   java -XX:SharedArchiveFile=target/restaurantDB.jsa -cp "$DRIVER_JAR" -p target/modules -m restaurantDB
+#
+# Rebuild the archive whenever the app or the JDK changes; a stale archive is ignored with a warning.
+set -e
+cd "$(dirname "$0")"
+
+OUT=target
+rm -rf "$OUT/app-classes" "$OUT/modules" "$OUT/restaurantDB.jsa"
+mkdir -p "$OUT/app-classes" "$OUT/modules"
+javac -d "$OUT/app-classes" $(find src -name '*.java')
+cp src/app/schema.sql src/app/bill-template.txt "$OUT/app-classes/app/"
+jar --create --file "$OUT/modules/restaurantDB.jar" --main-class app.MainApp -C "$OUT/app-classes" .
+
+java -XX:ArchiveClassesAtExit="$OUT/restaurantDB.jsa" -Drestaurant.startup.exitAfter=firstTableLoaded "$@" \
+    -cp "${DRIVER_JAR}" -p "$OUT/modules" -m restaurantDB
+echo "Wrote $OUT/restaurantDB.jsa"
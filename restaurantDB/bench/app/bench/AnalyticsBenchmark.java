@@ -0,0 +1,89 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.PooledConnection;
+import app.SalesAnalytics;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Top-selling items computed three ways over the same order history:
+//   sql      - GROUP BY pushed down to the database (SalesAnalytics.topSellingItems)
+//   summary  - read from the pre-aggregated sales_daily_summary table
+//   client   - every order line streamed to the client and aggregated in a HashMap
+//
+//   bench/run.sh app.bench.AnalyticsBenchmark [-Dbench.backend=embedded|mysql]
+public class AnalyticsBenchmark {
+    private static final int MENU_SIZE = 200;
+    private static final int[] ORDER_COUNTS = {1_000, 10_000, 50_000};
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-10s %-12s %-12s %-12s%n", "orders", "sql(ms)", "summary(ms)", "client(ms)");
+        try (ConnectionPool pool = BenchmarkDatabase.open("analytics", 2)) {
+            DatabaseManager manager = new DatabaseManager(pool);
+            manager.setSalesSummaryEnabled(true);
+            SalesAnalytics analytics = new SalesAnalytics(manager);
+            LocalDate today = LocalDate.now();
+
+            for (int orderCount : ORDER_COUNTS) {
+                reset(pool, manager);
+                BenchmarkData.seed(manager, MENU_SIZE, orderCount, 3);
+
+                double sql = time(() -> analytics.topSellingItems(10));
+                double summary = time(() -> analytics.topSellingItemsFromSummary(today.minusDays(1), today.plusDays(1), 10));
+                double client = time(() -> clientSideTopItems(manager, 10));
+                System.out.printf("%-10d %-12.2f %-12.2f %-12.2f%n", orderCount, sql, summary, client);
+            }
+        }
+    }
+
+    // What the GUI would have to do without pushdown: pull every line and aggregate locally
+    private static List<Map.Entry<Integer, long[]>> clientSideTopItems(DatabaseManager manager, int limit)
+            throws Exception {
+        Map<Integer, long[]> totals = new HashMap<>();
+        manager.streamRecords("order_items", new String[]{"menu_item_id", "quantity", "unit_price"}, row -> {
+            long quantity = Long.parseLong(row[1]);
+            long revenue = new BigDecimal(row[2]).movePointRight(2).longValue() * quantity;
+            long[] total = totals.computeIfAbsent(Integer.parseInt(row[0]), id -> new long[2]);
+            total[0] += quantity;
+            total[1] += revenue;
+        });
+        List<Map.Entry<Integer, long[]>> sorted = new ArrayList<>(totals.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<Integer, long[]> e) -> e.getValue()[0]).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    private interface Query {
+        Object run() throws Exception;
+    }
+
+    private static double time(Query query) throws Exception {
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    private static void reset(ConnectionPool pool, DatabaseManager manager) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            for (String table : new String[]{"sales_daily_summary", "order_items", "orders", "customers", "menu"}) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        manager.applySchema();
+    }
+}
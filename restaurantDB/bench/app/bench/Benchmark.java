@@ -0,0 +1,17 @@
+package app.bench;
+
+import app.DatabaseManager;
+
+// One measured operation for BenchmarkRunner. setUp runs once against a freshly seeded
+// database; operation() is then called repeatedly and timed individually.
+interface Benchmark {
+    String name();
+
+    default void setUp(DatabaseManager manager, int seedRows) throws Exception {
+    }
+
+    void operation(DatabaseManager manager) throws Exception;
+
+    default void tearDown(DatabaseManager manager) throws Exception {
+    }
+}
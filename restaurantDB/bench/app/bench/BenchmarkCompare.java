@@ -0,0 +1,57 @@
+package app.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Compares two BenchmarkRunner result files and exits with status 1 if any benchmark's
+// throughput dropped by more than the threshold (default 10%).
+//
+//   java -cp bench-bin app.bench.BenchmarkCompare base.json candidate.json [thresholdPercent]
+public class BenchmarkCompare {
+    private static final Pattern RESULT = Pattern.compile(
+            "\"name\":\"([^\"]+)\".*\"opsPerSec\":([0-9.]+).*\"p99Us\":([0-9.]+)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <base.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Map<String, double[]> base = read(args[0]);
+        Map<String, double[]> candidate = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        boolean regressed = false;
+        System.out.printf("%-20s %12s %12s %9s %12s %12s %9s%n",
+                "benchmark", "base ops/s", "new ops/s", "delta", "base p99", "new p99", "delta");
+        for (Map.Entry<String, double[]> entry : candidate.entrySet()) {
+            double[] before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double[] after = entry.getValue();
+            double throughputDelta = (after[0] - before[0]) / before[0] * 100;
+            double latencyDelta = (after[1] - before[1]) / before[1] * 100;
+            boolean worse = throughputDelta < -threshold;
+            regressed |= worse;
+            System.out.printf("%-20s %12.1f %12.1f %+8.1f%% %12.1f %12.1f %+8.1f%%%s%n", entry.getKey(),
+                    before[0], after[0], throughputDelta, before[1], after[1], latencyDelta, worse ? "  REGRESSION" : "");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // name -> {opsPerSec, p99Us}; the runner writes one result object per line
+    private static Map<String, double[]> read(String file) throws Exception {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(Paths.get(file))) {
+            Matcher m = RESULT.matcher(line);
+            if (m.find()) {
+                results.put(m.group(1), new double[]{Double.parseDouble(m.group(2)), Double.parseDouble(m.group(3))});
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,50 @@
+package app.bench;
+
+import app.DatabaseManager;
+import app.OrderLine;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+// The rows benchmarks run against: menu items 1..menuSize and one customer with orderCount orders,
+// each of itemsPerOrder consecutive items. The Random is seeded, so every run inserts the same rows.
+final class BenchmarkData {
+    static final String[] MENU_COLUMNS = {"menu_item_id", "item_name", "price"};
+
+    private BenchmarkData() {
+    }
+
+    static void seed(DatabaseManager manager, int menuSize, int orderCount, int itemsPerOrder) throws SQLException {
+        manager.bulkInsert("menu", MENU_COLUMNS, menuRows(1, menuSize), 1_000);
+        Random random = new Random(42);
+        int customerId = manager.insertCustomerOrder("Customer", "1", List.of(new OrderLine(1, 1)));
+        for (int o = 1; o < orderCount; o++) {
+            List<OrderLine> lines = new ArrayList<>(itemsPerOrder);
+            int first = 1 + random.nextInt(Math.max(1, menuSize - itemsPerOrder));
+            for (int i = 0; i < itemsPerOrder; i++) {
+                lines.add(new OrderLine(first + i, 1 + random.nextInt(3)));
+            }
+            manager.insertOrder(customerId, lines);
+        }
+    }
+
+    static Iterator<String[]> menuRows(int firstId, int count) {
+        return new Iterator<>() {
+            private int next = firstId;
+
+            @Override
+            public boolean hasNext() {
+                return next < firstId + count;
+            }
+
+            @Override
+            public String[] next() {
+                int id = next++;
+                return new String[]{String.valueOf(id), "Item " + id, String.valueOf(5_000 + id % 500 * 100)};
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseConfig;
+import app.StorageBackend;
+
+import java.io.IOException;
+
+// Opens the database a benchmark runs against, through the same StorageBackend as the app.
+//   -Dbench.backend=embedded (default)  in-memory H2, needs h2.jar on the classpath
+//   -Dbench.backend=mysql               the server from restaurant.properties; use a scratch database
+//   -Dbench.url=...                     override the JDBC URL
+// Benchmarks drop and recreate their tables, so never point them at production data.
+final class BenchmarkDatabase {
+    private BenchmarkDatabase() {
+    }
+
+    static ConnectionPool open(String name, int poolSize) throws IOException {
+        String backendName = System.getProperty("bench.backend", "embedded");
+        StorageBackend backend = StorageBackend.forName(backendName);
+        String url = System.getProperty("bench.url", backend.isInProcess()
+                ? "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+                : backend.defaultUrl());
+
+        // Credentials come from restaurant.properties unless the database is in-process
+        DatabaseConfig config = backend.isInProcess()
+                ? new DatabaseConfig(backendName, url, "sa", "", poolSize)
+                : DatabaseConfig.load();
+        System.out.println("# backend=" + backend.name() + " url=" + url + " poolSize=" + poolSize);
+        return new ConnectionPool(url, config.user(), config.password(), poolSize);
+    }
+}
@@ -0,0 +1,32 @@
+package app.bench;
+
+import java.util.Arrays;
+
+// Throughput and latency percentiles for one benchmark run; latencies are in microseconds
+record BenchmarkResult(String name, String backend, int seedRows, long operations, double opsPerSec,
+                       double mean, double p50, double p90, double p99, double p999, double max) {
+
+    static BenchmarkResult of(String name, String backend, int seedRows, long[] nanos, int count, long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long n : sorted) {
+            sum += n;
+        }
+        return new BenchmarkResult(name, backend, seedRows, count, count / (elapsedNanos / 1e9),
+                sum / count / 1_000, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[count - 1] / 1_000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000.0;
+    }
+
+    String toJson() {
+        return String.format(java.util.Locale.ROOT,
+                "{\"name\":\"%s\",\"backend\":\"%s\",\"seedRows\":%d,\"operations\":%d,\"opsPerSec\":%.2f,"
+                + "\"meanUs\":%.2f,\"p50Us\":%.2f,\"p90Us\":%.2f,\"p99Us\":%.2f,\"p999Us\":%.2f,\"maxUs\":%.2f}",
+                name, backend, seedRows, operations, opsPerSec, mean, p50, p90, p99, p999, max);
+    }
+}
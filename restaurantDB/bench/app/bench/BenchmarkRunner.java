@@ -0,0 +1,117 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.PooledConnection;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs CoreBenchmarks against a freshly seeded database and writes machine-readable results.
+// Each benchmark gets its own reset + seed, a warmup phase, then a timed phase in which every
+// operation is timed individually for latency percentiles.
+//
+//   -Dbench.rows=10000          rows to seed (menu items; orders = rows / 4)
+//   -Dbench.warmupSeconds=3     warmup per benchmark
+//   -Dbench.measureSeconds=10   measurement per benchmark
+//   -Dbench.filter=bill         only run benchmarks whose name contains this
+//   -Dbench.out=bench-results   directory for the JSON results
+//   -Dbench.commit=<sha>        recorded in the results, for comparing across commits
+// plus -Dbench.backend / -Dbench.url (see BenchmarkDatabase). Compare two result files with
+// BenchmarkCompare.
+public class BenchmarkRunner {
+    private static final String[] TABLES =
+            {"sales_daily_summary", "order_items", "orders", "customers", "employees", "menu"};
+
+    public static void main(String[] args) throws Exception {
+        int seedRows = Integer.getInteger("bench.rows", 10_000);
+        long warmupNanos = Long.getLong("bench.warmupSeconds", 3) * 1_000_000_000L;
+        long measureNanos = Long.getLong("bench.measureSeconds", 10) * 1_000_000_000L;
+        String filter = System.getProperty("bench.filter", "");
+        String backend = System.getProperty("bench.backend", "embedded");
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        try (ConnectionPool pool = BenchmarkDatabase.open("runner", 4)) {
+            DatabaseManager manager = new DatabaseManager(pool);
+            for (Benchmark benchmark : CoreBenchmarks.all()) {
+                if (!benchmark.name().contains(filter)) {
+                    continue;
+                }
+                reset(pool, manager);
+                CoreBenchmarks.seed(manager, seedRows);
+                benchmark.setUp(manager, seedRows);
+                try {
+                    BenchmarkResult result = measure(benchmark, manager, backend, seedRows, warmupNanos, measureNanos);
+                    results.add(result);
+                    System.out.printf("%-20s %10.1f ops/s  mean %9.1f us  p50 %9.1f  p99 %9.1f  p99.9 %9.1f%n",
+                            result.name(), result.opsPerSec(), result.mean(), result.p50(), result.p99(), result.p999());
+                } finally {
+                    benchmark.tearDown(manager);
+                }
+            }
+        }
+        System.out.println("Results written to " + write(results));
+    }
+
+    private static BenchmarkResult measure(Benchmark benchmark, DatabaseManager manager, String backend,
+                                           int seedRows, long warmupNanos, long measureNanos) throws Exception {
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < warmupEnd) {
+            benchmark.operation(manager);
+        }
+
+        long[] nanos = new long[1 << 16];
+        int count = 0;
+        long start = System.nanoTime();
+        long end = start + measureNanos;
+        long now = start;
+        while (now < end) {
+            benchmark.operation(manager);
+            long after = System.nanoTime();
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, nanos.length * 2);
+            }
+            nanos[count++] = after - now;
+            now = after;
+        }
+        return BenchmarkResult.of(benchmark.name(), backend, seedRows, nanos, count, now - start);
+    }
+
+    static void reset(ConnectionPool pool, DatabaseManager manager) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            for (String table : TABLES) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        manager.applySchema();
+    }
+
+    private static Path write(List<BenchmarkResult> results) throws IOException {
+        String commit = System.getProperty("bench.commit", "unknown");
+        Path dir = Paths.get(System.getProperty("bench.out", "bench-results"));
+        Files.createDirectories(dir);
+        Instant now = Instant.now();
+        Path file = dir.resolve("results-" + now.getEpochSecond() + "-" + commit + ".json");
+
+        StringBuilder json = new StringBuilder("{\"commit\":\"").append(commit)
+                .append("\",\"timestamp\":\"").append(now)
+                .append("\",\"java\":\"").append(System.getProperty("java.version"))
+                .append("\",\"results\":[\n");
+        for (int i = 0; i < results.size(); i++) {
+            json.append("  ").append(results.get(i).toJson()).append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("]}\n");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,66 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.PooledConnection;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Bill latency as the menu and order history grow.
+// getBill prices an order with one join + aggregate, so its latency should stay flat
+// regardless of how many menu items or past orders exist.
+//
+//   bench/run.sh app.bench.BillBenchmark [-Dbench.backend=embedded|mysql]
+public class BillBenchmark {
+    private static final int[] MENU_SIZES = {50, 500, 5_000};
+    private static final int[] ORDER_COUNTS = {1_000, 10_000, 100_000};
+    private static final int ITEMS_PER_ORDER = 4;
+    private static final int SAMPLES = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-8s %-10s %-12s %-12s %-12s%n", "menu", "orders", "mean(us)", "p50(us)", "p99(us)");
+        try (ConnectionPool pool = BenchmarkDatabase.open("bills", 2)) {
+            DatabaseManager manager = new DatabaseManager(pool);
+            for (int menuSize : MENU_SIZES) {
+                for (int orderCount : ORDER_COUNTS) {
+                    reset(pool, manager);
+                    BenchmarkData.seed(manager, menuSize, orderCount, ITEMS_PER_ORDER);
+                    measure(manager, menuSize, orderCount);
+                }
+            }
+        }
+    }
+
+    private static void reset(ConnectionPool pool, DatabaseManager manager) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            for (String table : new String[]{"order_items", "orders", "customers", "menu"}) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        manager.applySchema();
+    }
+
+    private static void measure(DatabaseManager manager, int menuSize, int orderCount) throws SQLException {
+        Random random = new Random(7);
+        // Warm up the statement cache and the JIT
+        for (int i = 0; i < SAMPLES / 4; i++) {
+            manager.getBill(1 + random.nextInt(orderCount));
+        }
+
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            manager.getBill(1 + random.nextInt(orderCount));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        long mean = Arrays.stream(nanos).sum() / SAMPLES;
+        System.out.printf("%-8d %-10d %-12d %-12d %-12d%n", menuSize, orderCount,
+                mean / 1_000, nanos[SAMPLES / 2] / 1_000, nanos[SAMPLES * 99 / 100] / 1_000);
+    }
+}
@@ -0,0 +1,111 @@
+package app.bench;
+
+import app.Bill;
+import app.BillCharges;
+import app.BillFormatter;
+import app.BillTemplate;
+import app.Money;
+import app.RupiahFormat;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Renders 100k bills with the old concatenation + String.format struk and with the compiled
+// BillTemplate into one reused StringBuilder; reports bills per second and bytes allocated
+// per bill. No database needed:
+//
+//   bench/run.sh app.bench.BillRenderBenchmark [-Dbench.bills=100000]
+public class BillRenderBenchmark {
+    private static final int BILLS = Integer.getInteger("bench.bills", 100_000);
+    private static final int ROUNDS = 5;
+    private static final String[] ITEMS = {"Nasi Goreng", "Mie Ayam", "Es Teh Manis", "Sate Ayam Madura isi 10 tusuk",
+            "Soto Betawi", "Ayam Bakar Taliwang dengan Plecing Kangkung", "Es Jeruk", "Gado-gado"};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        List<Bill> bills = new ArrayList<>(BILLS);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= BILLS; i++) {
+            List<Bill.Line> lines = new ArrayList<>();
+            long total = 0;
+            for (int l = 0, n = 1 + random.nextInt(6); l < n; l++) {
+                int quantity = 1 + random.nextInt(3);
+                long price = (10 + random.nextInt(90)) * 1_000 * 100L;
+                lines.add(new Bill.Line(l + 1, ITEMS[random.nextInt(ITEMS.length)], quantity, price, price * quantity));
+                total += price * quantity;
+            }
+            bills.add(new Bill(i, "Pelanggan " + i, new Timestamp(now - i * 60_000L), lines, total));
+        }
+        BillFormatter formatter = new BillFormatter(BillTemplate.bundled(), new BillCharges(500, 1000), new RupiahFormat());
+
+        StringBuilder reused = new StringBuilder(1024);
+        Map<String, Renderer> renderers = new LinkedHashMap<>();
+        renderers.put("concat + String.format", bill -> concat(bill).length());
+        renderers.put("template, new String", bill -> formatter.render(bill).length());
+        renderers.put("template, reused builder", bill -> {
+            reused.setLength(0);
+            return formatter.formatTo(bill, reused).length();
+        });
+
+        // Warm every renderer up before timing any, so none profits from the others' JIT work
+        int blackhole = 0;
+        for (int r = 0; r < 2; r++) {
+            for (Renderer renderer : renderers.values()) {
+                for (Bill bill : bills) {
+                    blackhole += renderer.render(bill);
+                }
+            }
+        }
+        System.out.printf("# bills=%d%n%-28s %-12s %-12s%n", BILLS, "renderer", "bills/s", "bytes/bill");
+        for (Map.Entry<String, Renderer> renderer : renderers.entrySet()) {
+            blackhole += measure(renderer.getKey(), bills, renderer.getValue());
+        }
+        if (blackhole == 42) {
+            System.out.println();
+        }
+    }
+
+    // The struk as ManagementGUI used to build it
+    private static String concat(Bill bill) {
+        String text = "=== STRUK PEMBAYARAN ===\n" +
+                "Nama Pelanggan: " + bill.customerName() + "\n" +
+                "No. Pesanan: " + bill.orderId() + "\n" +
+                "Pesanan:\n";
+        for (Bill.Line line : bill.lines()) {
+            text += "  " + line.itemName() + " x" + line.quantity()
+                    + " @ Rp " + String.format("%.2f", line.unitPriceMinor() / (double) Money.MINOR_PER_UNIT)
+                    + " = Rp " + String.format("%.2f", line.lineTotalMinor() / (double) Money.MINOR_PER_UNIT) + "\n";
+        }
+        return text + "Total Harga: Rp " + String.format("%.2f", bill.totalMinor() / (double) Money.MINOR_PER_UNIT)
+                + "\n=========================";
+    }
+
+    private interface Renderer {
+        int render(Bill bill);
+    }
+
+    private static int measure(String name, List<Bill> bills, Renderer renderer) {
+        int blackhole = 0;
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int r = 0; r < ROUNDS; r++) {
+            for (Bill bill : bills) {
+                blackhole += renderer.render(bill);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long rendered = (long) bills.size() * ROUNDS;
+        System.out.printf("%-28s %-12.0f %-12d%n", name, rendered / (nanos / 1e9), bytes / rendered);
+        return blackhole;
+    }
+}
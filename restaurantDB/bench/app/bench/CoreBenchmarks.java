@@ -0,0 +1,161 @@
+package app.bench;
+
+import app.Bill;
+import app.DatabaseManager;
+import app.ReportExporter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// The benchmarks run by BenchmarkRunner: CRUD, table loads, bills and report export
+final class CoreBenchmarks {
+    private CoreBenchmarks() {
+    }
+
+    static List<Benchmark> all() {
+        return List.of(new SingleInsert(), new BatchInsert(), new TableLoad(), new PageLoad(),
+                new BillGeneration(), new CsvExport());
+    }
+
+    // Seeds menu rows 1..seedRows and one customer with seedRows / 4 orders
+    static void seed(DatabaseManager manager, int seedRows) throws Exception {
+        BenchmarkData.seed(manager, seedRows, Math.max(1, seedRows / 4), 2);
+    }
+
+    // One autocommit insert per operation
+    static final class SingleInsert implements Benchmark {
+        private int nextId;
+
+        @Override
+        public String name() {
+            return "insert.single";
+        }
+
+        @Override
+        public void setUp(DatabaseManager manager, int seedRows) {
+            nextId = 10_000_000;
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) {
+            int id = nextId++;
+            manager.insertRecord("menu", BenchmarkData.MENU_COLUMNS, new String[]{String.valueOf(id), "Item " + id, "10000"});
+        }
+    }
+
+    // 1,000 rows per operation through bulkInsert
+    static final class BatchInsert implements Benchmark {
+        private int nextId;
+
+        @Override
+        public String name() {
+            return "insert.batch1000";
+        }
+
+        @Override
+        public void setUp(DatabaseManager manager, int seedRows) {
+            nextId = 20_000_000;
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) throws Exception {
+            manager.bulkInsert("menu", BenchmarkData.MENU_COLUMNS, BenchmarkData.menuRows(nextId, 1_000), 1_000);
+            nextId += 1_000;
+        }
+    }
+
+    // Whole-table materialization, as the old table view did
+    static final class TableLoad implements Benchmark {
+        @Override
+        public String name() {
+            return "load.allRecords";
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) throws Exception {
+            manager.getAllRecords("menu", BenchmarkData.MENU_COLUMNS);
+        }
+    }
+
+    // One keyset page at a random position, as the paged table view does
+    static final class PageLoad implements Benchmark {
+        private final Random random = new Random(1);
+        private int seedRows;
+
+        @Override
+        public String name() {
+            return "load.page200";
+        }
+
+        @Override
+        public void setUp(DatabaseManager manager, int seedRows) {
+            this.seedRows = seedRows;
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) throws Exception {
+            String afterKey = String.valueOf(random.nextInt(seedRows));
+            manager.getPage("menu", BenchmarkData.MENU_COLUMNS, "menu_item_id", afterKey, 200);
+        }
+    }
+
+    // Price a random historical order
+    static final class BillGeneration implements Benchmark {
+        private final Random random = new Random(2);
+        private int orders;
+
+        @Override
+        public String name() {
+            return "bill.generate";
+        }
+
+        @Override
+        public void setUp(DatabaseManager manager, int seedRows) {
+            orders = Math.max(1, seedRows / 4);
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) throws Exception {
+            Bill bill = manager.getBill(1 + random.nextInt(orders));
+            if (bill == null) {
+                throw new IllegalStateException("Seeded order not found");
+            }
+        }
+    }
+
+    // Stream the whole menu table to a CSV file
+    static final class CsvExport implements Benchmark {
+        private Path file;
+
+        @Override
+        public String name() {
+            return "report.csvExport";
+        }
+
+        @Override
+        public void setUp(DatabaseManager manager, int seedRows) throws Exception {
+            file = Files.createTempFile("bench-report", ".csv");
+        }
+
+        @Override
+        public void operation(DatabaseManager manager) throws Exception {
+            new ReportExporter(manager).exportTable("menu", BenchmarkData.MENU_COLUMNS, file, rows -> { });
+        }
+
+        @Override
+        public void tearDown(DatabaseManager manager) throws Exception {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (Benchmark benchmark : all()) {
+            names.add(benchmark.name());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,72 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// JMH front end for CoreBenchmarks, built into target/benchmarks.jar by the bench module's pom.
+// Each trial resets and seeds its own embedded database, then times one CoreBenchmarks
+// operation. Throughput and sampled latency (p50 ... p99.99) are reported together.
+//
+//   java -jar bench/target/benchmarks.jar -p rows=100000 -p benchmark=bill.generate -rf json
+//
+// -Dbench.backend / -Dbench.url (see BenchmarkDatabase) can be passed with -jvmArgsAppend.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoreJmhBenchmark {
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"insert.single", "insert.batch1000", "load.allRecords", "load.page200", "bill.generate",
+            "report.csvExport"})
+    public String benchmark;
+
+    private ConnectionPool pool;
+    private DatabaseManager manager;
+    private app.bench.Benchmark operation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        operation = CoreBenchmarks.all().stream()
+                .filter(candidate -> candidate.name().equals(benchmark))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown benchmark " + benchmark));
+        pool = BenchmarkDatabase.open("jmh", 4);
+        manager = new DatabaseManager(pool);
+        BenchmarkRunner.reset(pool, manager);
+        CoreBenchmarks.seed(manager, rows);
+        operation.setUp(manager, rows);
+    }
+
+    @Benchmark
+    public void run() throws Exception {
+        operation.operation(manager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try {
+            operation.tearDown(manager);
+        } finally {
+            pool.close();
+        }
+    }
+}
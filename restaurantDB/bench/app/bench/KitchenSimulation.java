@@ -0,0 +1,218 @@
+package app.bench;
+
+import app.KitchenPrepTimes;
+import app.KitchenQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives orders through KitchenQueue. No database needed:
+//
+//   bench/run.sh app.bench.KitchenSimulation [-Dbench.ordersPerMinute=2000] [-Dbench.hours=3]
+//       [-Dbench.load=0.85] [-Dbench.rush=1.4] [-Dbench.producers=4] [-Dbench.cooks=8] [-Dbench.millis=3000]
+//
+// 1. Scheduling: a virtual-clock simulation of a kitchen taking ordersPerMinute, with a lunch
+//    rush at 1.4 times the rate in the second hour, enough cooks for 85% load outside the rush,
+//    and dishes taking 2 to 20 minutes. It compares PRIORITY with FIFO on tickets finished late,
+//    wait and total time. The queue, prep-time learning and stats are the app's own.
+// 2. Concurrency: producer and cook threads hammer offer/take/complete on one queue in real time
+//    and report throughput, then check that every ticket was started and completed exactly once.
+public class KitchenSimulation {
+    private static final int ORDERS_PER_MINUTE = Integer.getInteger("bench.ordersPerMinute", 2_000);
+    private static final int HOURS = Integer.getInteger("bench.hours", 3);
+    private static final double LOAD = Double.parseDouble(System.getProperty("bench.load", "0.85"));
+    private static final double RUSH = Double.parseDouble(System.getProperty("bench.rush", "1.4"));
+    private static final int PRODUCERS = Integer.getInteger("bench.producers", 4);
+    private static final int COOKS = Integer.getInteger("bench.cooks", 8);
+    private static final long RUN_MILLIS = Long.getLong("bench.millis", 3_000);
+    private static final long TARGET_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int MENU_SIZE = 40;
+    private static final long MINUTE = 60_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("# scheduling: %d orders/min (x%.2f in hour 2), %d hours, %.0f%% load, target %d min%n",
+                ORDERS_PER_MINUTE, RUSH, HOURS, LOAD * 100, TARGET_MILLIS / MINUTE);
+        System.out.printf("%-9s %-9s %-10s %-8s %-12s %-12s %-12s %-12s%n", "policy", "orders", "orders/h",
+                "late %", "wait p50", "wait p99", "total p99", "total max");
+        for (KitchenQueue.Policy policy : KitchenQueue.Policy.values()) {
+            schedule(policy);
+        }
+        System.out.println();
+        concurrency();
+    }
+
+    // Prep minutes per menu item: mostly quick dishes, a few slow ones
+    private static long[] menuPrepMillis(Random random) {
+        long[] prep = new long[MENU_SIZE + 1];
+        for (int id = 1; id <= MENU_SIZE; id++) {
+            prep[id] = (id % 5 == 0 ? 12 + random.nextInt(9) : 2 + random.nextInt(8)) * MINUTE;
+        }
+        return prep;
+    }
+
+    private static List<KitchenQueue.Line> randomLines(Random random) {
+        int count = 1 + random.nextInt(3);
+        List<KitchenQueue.Line> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = 1 + random.nextInt(MENU_SIZE);
+            lines.add(new KitchenQueue.Line(id, "Item " + id, 1 + random.nextInt(2)));
+        }
+        return lines;
+    }
+
+    // Discrete-event simulation: the clock jumps from one arrival or completion to the next
+    private static void schedule(KitchenQueue.Policy policy) {
+        Random random = new Random(42);
+        long[] prep = menuPrepMillis(random);
+        KitchenPrepTimes prepTimes = new KitchenPrepTimes(10 * MINUTE);
+        for (int id = 1; id <= MENU_SIZE; id++) {
+            prepTimes.set(id, prep[id]); // The kitchen's own estimate; actual times vary around it
+        }
+        long[] clock = {0};
+        KitchenQueue queue = new KitchenQueue(prepTimes, TARGET_MILLIS, policy, () -> clock[0]);
+
+        // Enough cooks for the configured load outside the rush
+        double meanTicketMillis = meanTicketMillis(prep);
+        int cooks = (int) Math.ceil(ORDERS_PER_MINUTE * meanTicketMillis / MINUTE / LOAD);
+        record Finish(long at, long seq) {
+        }
+        PriorityQueue<Finish> busy = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+        long end = HOURS * 60 * MINUTE;
+        long nextArrival = 0;
+        int orderId = 0;
+        List<Long> waits = new ArrayList<>();
+        List<Long> totals = new ArrayList<>();
+
+        while (nextArrival < end || !busy.isEmpty() || queue.waitingCount() > 0) {
+            long nextFinish = busy.isEmpty() ? Long.MAX_VALUE : busy.peek().at();
+            if (nextArrival < end && nextArrival <= nextFinish) {
+                clock[0] = nextArrival;
+                queue.offer(++orderId, "Customer " + orderId, randomLines(random));
+                boolean rush = nextArrival >= 60 * MINUTE && nextArrival < 120 * MINUTE;
+                double perMilli = ORDERS_PER_MINUTE * (rush ? RUSH : 1.0) / MINUTE;
+                nextArrival += Math.max(1, (long) (-Math.log(1 - random.nextDouble()) / perMilli));
+            } else if (nextFinish != Long.MAX_VALUE) {
+                clock[0] = nextFinish;
+                queue.complete(busy.poll().seq());
+            } else {
+                break; // Only waiting tickets left and no cook busy: cannot happen with cooks > 0
+            }
+            while (busy.size() < cooks) {
+                KitchenQueue.Started started = queue.poll();
+                if (started == null) {
+                    break;
+                }
+                KitchenQueue.Ticket ticket = started.ticket();
+                long actual = actualMillis(ticket.lines(), prep, random);
+                long wait = started.startedAtMillis() - ticket.placedAtMillis();
+                waits.add(wait);
+                totals.add(wait + actual);
+                busy.add(new Finish(clock[0] + actual, ticket.seq()));
+            }
+        }
+
+        long[] sortedWaits = waits.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] sortedTotals = totals.stream().mapToLong(Long::longValue).sorted().toArray();
+        long completed = queue.getStats().getCompleted();
+        System.out.printf("%-9s %-9d %-10d %-8.1f %-12s %-12s %-12s %-12s%n", policy, completed,
+                queue.getStats().ordersPerHour(clock[0]), 100.0 * queue.getStats().getLate() / completed,
+                minutes(percentile(sortedWaits, 50)), minutes(percentile(sortedWaits, 99)),
+                minutes(percentile(sortedTotals, 99)), minutes(sortedTotals[sortedTotals.length - 1]));
+    }
+
+    // Lines cook side by side; each takes 70% to 130% of its usual time
+    private static long actualMillis(List<KitchenQueue.Line> lines, long[] prep, Random random) {
+        long actual = 0;
+        for (KitchenQueue.Line line : lines) {
+            actual = Math.max(actual, (long) (prep[line.menuItemId()] * (0.7 + 0.6 * random.nextDouble())));
+        }
+        return actual;
+    }
+
+    private static double meanTicketMillis(long[] prep) {
+        Random random = new Random(7);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            total += actualMillis(randomLines(random), prep, random);
+        }
+        return total / 100_000.0;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    private static String minutes(long millis) {
+        return String.format("%.1f min", millis / (double) MINUTE);
+    }
+
+    // Real threads, real clock, no cooking time: how fast the queue itself moves tickets
+    private static void concurrency() throws InterruptedException {
+        KitchenQueue queue = new KitchenQueue(new KitchenPrepTimes(5 * MINUTE), TARGET_MILLIS);
+        LongAdder offered = new LongAdder();
+        LongAdder completed = new LongAdder();
+        AtomicLong duplicates = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+        CountDownLatch producersDone = new CountDownLatch(PRODUCERS);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                Random random = new Random(producer);
+                int orderId = producer;
+                while (System.nanoTime() < deadline) {
+                    queue.offer(orderId, "Customer", randomLines(random));
+                    orderId += PRODUCERS;
+                    offered.increment();
+                }
+                producersDone.countDown();
+            }, "producer-" + p));
+        }
+        for (int c = 0; c < COOKS; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (true) {
+                        KitchenQueue.Started started = queue.take(10, TimeUnit.MILLISECONDS);
+                        if (started == null) {
+                            if (producersDone.getCount() == 0 && queue.waitingCount() == 0) {
+                                return;
+                            }
+                            continue;
+                        }
+                        if (queue.complete(started.ticket().seq())) {
+                            completed.increment();
+                        } else {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Done
+                }
+            }, "cook-" + c));
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("# concurrency: %d producers, %d cooks, %.1f s%n", PRODUCERS, COOKS, seconds);
+        System.out.printf("offered %d, completed %d (%.0f orders/s, %.0f orders/min), duplicates %d, left %d, in progress %d%n",
+                offered.sum(), completed.sum(), completed.sum() / seconds, completed.sum() / seconds * 60,
+                duplicates.get(), queue.waitingCount(), queue.inProgress().size());
+        if (completed.sum() != offered.sum() || duplicates.get() != 0) {
+            System.out.println("MISMATCH: tickets were lost or completed twice");
+        }
+    }
+}
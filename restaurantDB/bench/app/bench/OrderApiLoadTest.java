@@ -0,0 +1,149 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.MenuCache;
+import app.OrderApiServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Many online-ordering clients against OrderApiServer on a local embedded database. Each client
+// loops over a mix of requests for a fixed time and records the latency of every one:
+//
+//   menu.304     GET /api/menu with the ETag it already has (no database work)
+//   menu.item    GET /api/menu/{id}
+//   order.post   POST /api/orders for the seeded customer
+//   order.get    GET /api/orders/{id} of an order it placed (priced by the database)
+//
+//   bench/run.sh app.bench.OrderApiLoadTest [-Dbench.clients=32] [-Dbench.millis=5000]
+//       [-Dbench.pool=8] [-Dbench.threads=16]
+//
+// Client and server share the machine, so treat the numbers as relative: they show what the
+// ETag path saves and where the pool starts to queue, not production capacity.
+public class OrderApiLoadTest {
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 32);
+    private static final long RUN_MILLIS = Long.getLong("bench.millis", 5_000);
+    private static final int POOL_SIZE = Integer.getInteger("bench.pool", 8);
+    private static final int SERVER_THREADS = Integer.getInteger("bench.threads", POOL_SIZE * 2);
+    private static final int MENU_SIZE = 200;
+    private static final String[] KINDS = {"menu.304", "menu.item", "order.post", "order.get"};
+
+    public static void main(String[] args) throws Exception {
+        try (ConnectionPool pool = BenchmarkDatabase.open("api", POOL_SIZE)) {
+            DatabaseManager manager = new DatabaseManager(pool);
+            manager.applySchema();
+            CoreBenchmarks.seed(manager, MENU_SIZE);
+            MenuCache menuCache = new MenuCache(manager);
+            try (OrderApiServer server = new OrderApiServer(manager, menuCache, null,
+                    new InetSocketAddress("127.0.0.1", 0), SERVER_THREADS)) {
+                server.start();
+                run("http://127.0.0.1:" + server.getPort());
+            }
+        }
+    }
+
+    private static void run(String base) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String etag = client.send(HttpRequest.newBuilder(URI.create(base + "/api/menu")).build(),
+                HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag").orElseThrow();
+
+        List<List<long[]>> samples = new ArrayList<>(); // [client][kind] -> latencies
+        LongAdder failures = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        long[] deadline = new long[1];
+        for (int c = 0; c < CLIENTS; c++) {
+            List<long[]> mine = new ArrayList<>();
+            for (int k = 0; k < KINDS.length; k++) {
+                mine.add(new long[1 << 16]);
+            }
+            samples.add(mine);
+            int[] counts = new int[KINDS.length];
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<String> placed = new ArrayList<>();
+                try {
+                    go.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        int kind = random.nextInt(KINDS.length);
+                        HttpRequest request = switch (kind) {
+                            case 0 -> HttpRequest.newBuilder(URI.create(base + "/api/menu"))
+                                    .header("If-None-Match", etag).build();
+                            case 1 -> HttpRequest.newBuilder(URI.create(base + "/api/menu/" + (1 + random.nextInt(MENU_SIZE))))
+                                    .build();
+                            case 2 -> HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString("{\"customerId\":1,\"items\":[{\"menuItemId\":"
+                                            + (1 + random.nextInt(MENU_SIZE)) + ",\"quantity\":2}]}"))
+                                    .build();
+                            default -> HttpRequest.newBuilder(URI.create(base + (placed.isEmpty() ? "/api/orders/1"
+                                    : placed.get(random.nextInt(placed.size()))))).build();
+                        };
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        long elapsed = System.nanoTime() - start;
+                        if (response.statusCode() >= 400) {
+                            failures.increment();
+                            continue;
+                        }
+                        if (kind == 2) {
+                            response.headers().firstValue("Location").ifPresent(placed::add);
+                        }
+                        long[] series = mine.get(kind);
+                        if (counts[kind] == series.length) {
+                            series = Arrays.copyOf(series, series.length * 2);
+                            mine.set(kind, series);
+                        }
+                        series[counts[kind]++] = elapsed;
+                    }
+                } catch (Exception e) {
+                    failures.increment();
+                    e.printStackTrace();
+                }
+                for (int k = 0; k < KINDS.length; k++) {
+                    mine.set(k, Arrays.copyOf(mine.get(k), counts[k]));
+                }
+            }, "api-client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long start = System.nanoTime();
+        deadline[0] = start + RUN_MILLIS * 1_000_000;
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("# clients=%d serverThreads=%d failures=%d%n", CLIENTS, SERVER_THREADS, failures.sum());
+        System.out.printf("%-12s %-10s %-10s %-10s %-10s %-10s%n",
+                "request", "count", "req/s", "p50(us)", "p99(us)", "max(us)");
+        long total = 0;
+        for (int k = 0; k < KINDS.length; k++) {
+            int kind = k;
+            long[] all = samples.stream().flatMapToLong(mine -> Arrays.stream(mine.get(kind))).sorted().toArray();
+            total += all.length;
+            if (all.length == 0) {
+                System.out.printf("%-12s %-10d%n", KINDS[k], 0);
+                continue;
+            }
+            System.out.printf("%-12s %-10d %-10.0f %-10d %-10d %-10d%n", KINDS[k], all.length, all.length / seconds,
+                    all[all.length / 2] / 1_000, all[all.length * 99 / 100] / 1_000, all[all.length - 1] / 1_000);
+        }
+        System.out.printf("%-12s %-10d %-10.0f%n", "all", total, total / seconds);
+    }
+}
@@ -0,0 +1,100 @@
+package app.bench;
+
+import app.OrderJournal;
+import app.OrderLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+// Latency from OrderJournal.append to "on disk" for 1..16 tills appending at once, with and
+// without a group commit window. A background drain acknowledges orders as fast as they
+// become durable, standing in for a database that keeps up. No database needed:
+//
+//   bench/run.sh app.bench.OrderJournalBenchmark [-Dbench.orders=2000] [-Dbench.dir=/tmp]
+//
+// Run it on the disk the tills use; on tmpfs every force is free and the numbers mean little.
+public class OrderJournalBenchmark {
+    private static final int ORDERS_PER_TILL = Integer.getInteger("bench.orders", 2_000);
+    private static final int[] TILLS = {1, 4, 16};
+    private static final long[] GROUP_COMMIT_MILLIS = {0, 2};
+    private static final List<OrderLine> LINES = List.of(new OrderLine(1, 2), new OrderLine(7, 1), new OrderLine(12, 3));
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of(System.getProperty("bench.dir", System.getProperty("java.io.tmpdir")));
+        System.out.printf("%-6s %-10s %-12s %-10s %-10s %-10s%n",
+                "tills", "group(ms)", "orders/s", "p50(us)", "p99(us)", "max(us)");
+        for (long groupCommit : GROUP_COMMIT_MILLIS) {
+            for (int tills : TILLS) {
+                Path file = Files.createTempFile(dir, "orders", ".journal");
+                try {
+                    run(file, tills, groupCommit);
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void run(Path file, int tills, long groupCommitMillis) throws Exception {
+        long[][] nanos = new long[tills][ORDERS_PER_TILL];
+        try (OrderJournal journal = new OrderJournal(file, 64 * 1024 * 1024, groupCommitMillis)) {
+            Thread drain = new Thread(() -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        List<OrderJournal.Entry> batch = journal.nextBatch(500, 100);
+                        if (!batch.isEmpty()) {
+                            journal.acknowledge(batch.get(batch.size() - 1).seq());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Done
+                }
+            });
+            drain.start();
+
+            CountDownLatch ready = new CountDownLatch(tills);
+            CountDownLatch go = new CountDownLatch(1);
+            Thread[] threads = new Thread[tills];
+            Exception[] failure = new Exception[1];
+            for (int t = 0; t < tills; t++) {
+                long[] samples = nanos[t];
+                threads[t] = new Thread(() -> {
+                    ready.countDown();
+                    try {
+                        go.await();
+                        for (int i = 0; i < samples.length; i++) {
+                            long start = System.nanoTime();
+                            journal.appendOrder(1 + i % 100, LINES).get();
+                            samples[i] = System.nanoTime() - start;
+                        }
+                    } catch (IOException | InterruptedException | ExecutionException e) {
+                        failure[0] = e;
+                    }
+                });
+                threads[t].start();
+            }
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long wall = System.nanoTime() - start;
+            drain.interrupt();
+            drain.join();
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+
+            long[] all = Arrays.stream(nanos).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%-6d %-10d %-12.0f %-10d %-10d %-10d%n", tills, groupCommitMillis,
+                    all.length / (wall / 1e9), all[all.length / 2] / 1_000,
+                    all[all.length * 99 / 100] / 1_000, all[all.length - 1] / 1_000);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.PooledConnection;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrency benchmark: how DatabaseManager throughput scales with pool size.
+//
+// Runs against an embedded database so it needs no server, e.g. with H2 on the classpath:
+//   bench/run.sh app.bench.PoolScalingBenchmark [-Dbench.backend=embedded|mysql]
+public class PoolScalingBenchmark {
+    private static final int THREADS = 16;
+    private static final int SEED_ROWS = 2_000;
+    private static final long RUN_MILLIS = 5_000;
+    private static final String[] COLUMNS = {"menu_item_id", "item_name", "price"};
+
+    public static void main(String[] args) throws Exception {
+        try (ConnectionPool seedPool = BenchmarkDatabase.open("bench", 1)) {
+            seed(seedPool);
+        }
+
+        System.out.printf("%-10s %-10s %-12s %-14s %-14s%n",
+                "poolSize", "ops", "ops/sec", "avgWait(us)", "maxWait(us)");
+        for (int poolSize : new int[]{1, 2, 4, 8, 16}) {
+            try (ConnectionPool pool = BenchmarkDatabase.open("bench", poolSize)) {
+                run(pool);
+            }
+        }
+    }
+
+    private static void seed(ConnectionPool pool) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS bench_menu");
+            stmt.execute("CREATE TABLE bench_menu (menu_item_id INT PRIMARY KEY, "
+                    + "item_name VARCHAR(100), price DECIMAL(12,2))");
+        }
+        DatabaseManager manager = new DatabaseManager(pool);
+        for (int i = 1; i <= SEED_ROWS; i++) {
+            manager.insertRecord("bench_menu", COLUMNS,
+                    new String[]{String.valueOf(i), "Item " + i, String.valueOf(10_000 + i)});
+        }
+    }
+
+    private static void run(ConnectionPool pool) throws InterruptedException {
+        DatabaseManager manager = new DatabaseManager(pool);
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+
+        for (int t = 0; t < THREADS; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    while (System.currentTimeMillis() < deadline) {
+                        manager.getAllRecords("bench_menu", COLUMNS);
+                        ops.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        System.out.printf("%-10d %-10d %-12.1f %-14d %-14d%n", pool.getMaxSize(), ops.sum(),
+                ops.sum() / seconds, stats.avgWaitMicros(), stats.maxWaitMicros());
+    }
+}
@@ -0,0 +1,103 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.MenuItem;
+import app.PooledConnection;
+import app.TableMeta;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Bytes allocated per loaded row: String[] rows (every cell a String, prices re-parsed with
+// Double.parseDouble as the bill code used to) against the typed records from TableMeta.
+// Allocation is read from the JVM's per-thread counter, so it includes the JDBC driver's share.
+//
+//   bench/run.sh app.bench.RowAllocationBenchmark [-Dbench.rows=10000]
+public class RowAllocationBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 10_000);
+    private static final int ROUNDS = 20;
+    private static final String[] MENU_COLUMNS = {"menu_item_id", "item_name", "price"};
+    private static final String[] CUSTOMER_COLUMNS = {"customer_id", "customer_name", "order_menu"};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @FunctionalInterface
+    private interface Load {
+        long run() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConnectionPool pool = BenchmarkDatabase.open("rows", 1)) {
+            DatabaseManager manager = new DatabaseManager(pool);
+            seed(pool, manager);
+
+            System.out.printf("%-22s %-14s %-12s%n", "load", "bytes/row", "us/1k rows");
+            measure("menu String[]", () -> {
+                long checksum = 0;
+                for (String[] row : manager.getAllRecords("menu", MENU_COLUMNS)) {
+                    checksum += Integer.parseInt(row[0]) + (long) (Double.parseDouble(row[2]) * 100);
+                }
+                return checksum;
+            });
+            measure("menu MenuItem", () -> {
+                long checksum = 0;
+                for (MenuItem item : manager.getAllRecords(TableMeta.MENU)) {
+                    checksum += item.id() + item.priceMinor();
+                }
+                return checksum;
+            });
+            measure("customers String[]", () -> manager.getAllRecords("customers", CUSTOMER_COLUMNS).size());
+            measure("customers Customer", () -> manager.getAllRecords(TableMeta.CUSTOMERS).size());
+        }
+    }
+
+    private static void seed(ConnectionPool pool, DatabaseManager manager) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            for (String table : new String[]{"order_items", "orders", "customers", "menu"}) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        manager.applySchema();
+        try (PooledConnection pooled = pool.borrow();
+             PreparedStatement menu = pooled.connection().prepareStatement(
+                     "INSERT INTO menu (menu_item_id, item_name, price) VALUES (?, ?, ?)");
+             PreparedStatement customers = pooled.connection().prepareStatement(
+                     "INSERT INTO customers (customer_id, customer_name, order_menu) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                menu.setInt(1, i);
+                menu.setString(2, "Item " + i);
+                menu.setString(3, (5_000 + i) + ".50");
+                menu.addBatch();
+                customers.setInt(1, i);
+                customers.setString(2, "Customer " + i);
+                customers.setString(3, String.valueOf(1 + i % 50));
+                customers.addBatch();
+            }
+            menu.executeBatch();
+            customers.executeBatch();
+        }
+    }
+
+    private static void measure(String name, Load load) throws SQLException {
+        for (int i = 0; i < ROUNDS; i++) {
+            load.run(); // Warm up the statement cache and the JIT
+        }
+        long threadId = Thread.currentThread().getId();
+        long blackhole = 0;
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += load.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long rows = (long) ROUNDS * ROWS;
+        System.out.printf("%-22s %-14d %-12.1f%s%n", name, bytes / rows, nanos / 1_000.0 / rows * 1_000,
+                blackhole == 42 ? " " : "");
+    }
+}
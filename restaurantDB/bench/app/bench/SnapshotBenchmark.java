@@ -0,0 +1,111 @@
+package app.bench;
+
+import app.ColumnarSnapshot;
+import app.Customer;
+import app.MenuItem;
+import app.TableMeta;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Vector;
+
+// Search and sort on the GUI's ColumnarSnapshot against the same work on a
+// DefaultTableModel-style Vector<Vector<Object>> of Strings. Runs in memory, no database needed:
+//
+//   bench/run.sh app.bench.SnapshotBenchmark [-Dbench.rows=50000]
+public class SnapshotBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 50_000);
+    private static final int ROUNDS = 50;
+    private static final String[] FIRST = {"Budi", "Siti", "Agus", "Dewi", "Rina", "Andi", "Putri", "Joko", "Wati", "Eko"};
+    private static final String[] LAST = {"Santoso", "Wijaya", "Saputra", "Lestari", "Hidayat", "Pratama", "Kusuma"};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<Customer> customers = new ArrayList<>(ROWS);
+        List<MenuItem> menu = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)] + " " + random.nextInt(1_000);
+            customers.add(new Customer(i, name, String.valueOf(1 + random.nextInt(50)), 0));
+            menu.add(new MenuItem(i, "Item " + i, 500_000 + random.nextInt(10_000_000), 0));
+        }
+        ColumnarSnapshot<Customer> customerSnapshot = ColumnarSnapshot.of(TableMeta.CUSTOMERS, customers);
+        ColumnarSnapshot<MenuItem> menuSnapshot = ColumnarSnapshot.of(TableMeta.MENU, menu);
+        Vector<Vector<Object>> customerVectors = toVectors(customers.size(), i -> {
+            Customer c = customers.get(i);
+            return new Object[]{String.valueOf(c.id()), c.name(), c.orderMenu()};
+        });
+        Vector<Vector<Object>> menuVectors = toVectors(menu.size(), i -> {
+            MenuItem m = menu.get(i);
+            return new Object[]{String.valueOf(m.id()), m.name(), app.Money.format(m.priceMinor())};
+        });
+
+        System.out.printf("# rows=%d%n%-34s %-12s %-12s%n", ROWS, "operation", "ms/op", "KB/op");
+        measure("search 'wijaya' vectors", () -> filterVectors(customerVectors, 1, "wijaya").size());
+        measure("search 'wijaya' snapshot", () -> customerSnapshot.view(1, "wijaya", false, -1, false).length);
+        measure("prefix 'siti' snapshot", () -> customerSnapshot.view(1, "siti", true, -1, false).length);
+        measure("sort price vectors", () -> sortVectors(menuVectors, 2).size());
+        measure("sort price snapshot", () -> menuSnapshot.view(-1, null, false, 2, false).length);
+        measure("sort name + search snapshot", () -> customerSnapshot.view(1, "dewi", false, 1, true).length);
+    }
+
+    private interface RowSource {
+        Object[] row(int index);
+    }
+
+    private static Vector<Vector<Object>> toVectors(int size, RowSource source) {
+        Vector<Vector<Object>> rows = new Vector<>(size);
+        for (int i = 0; i < size; i++) {
+            Vector<Object> row = new Vector<>();
+            for (Object value : source.row(i)) {
+                row.add(value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Vector<Object>> filterVectors(Vector<Vector<Object>> rows, int column, String query) {
+        List<Vector<Object>> result = new ArrayList<>();
+        for (Vector<Object> row : rows) {
+            if (row.get(column).toString().toLowerCase(Locale.ROOT).contains(query)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    // What a TableRowSorter over the String cells does: parse and compare per comparison
+    private static List<Vector<Object>> sortVectors(Vector<Vector<Object>> rows, int column) {
+        List<Vector<Object>> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingDouble(row -> Double.parseDouble(row.get(column).toString())));
+        return sorted;
+    }
+
+    private interface Operation {
+        int run();
+    }
+
+    private static void measure(String name, Operation operation) {
+        int blackhole = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += operation.run(); // Warm up; the snapshot builds its sort permutation here
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += operation.run();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%-34s %-12.3f %-12d%s%n", name, nanos / 1e6 / ROUNDS, bytes / 1024 / ROUNDS,
+                blackhole == 42 ? " " : "");
+    }
+}
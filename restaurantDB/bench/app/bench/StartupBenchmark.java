@@ -0,0 +1,104 @@
+package app.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Launch time of the packaged app, from starting the JVM to each StartupTrace milestone
+// (main, frameShown, servicesReady, firstTableLoaded), with the JDK's default class-data
+// sharing, with none, and with the AppCDS archive from appcds.sh when it exists.
+// Each launch exits by itself once the first table has loaded. Run ./appcds.sh first, then:
+//
+//   bench/run.sh app.bench.StartupBenchmark [-Dbench.launches=10] [-Dbench.driver=/path/to/driver.jar]
+//
+// Needs a display and the database from restaurant.properties; -Drestaurant.* options are
+// passed on to the app, e.g. -Drestaurant.db.backend=embedded.
+public class StartupBenchmark {
+    private static final int LAUNCHES = Integer.getInteger("bench.launches", 10);
+    private static final Path TARGET = Path.of("target");
+    private static final Path ARCHIVE = TARGET.resolve("restaurantDB.jsa");
+    private static final String[] MILESTONES = {"main", "frameShown", "servicesReady", "firstTableLoaded"};
+
+    public static void main(String[] args) throws Exception {
+        if (!Files.exists(TARGET.resolve("modules/restaurantDB.jar"))) {
+            System.err.println("target/modules/restaurantDB.jar not found; run ./appcds.sh first.");
+            System.exit(2);
+        }
+
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("default CDS", List.of());
+        configurations.put("no CDS", List.of("-Xshare:off"));
+        if (Files.exists(ARCHIVE)) {
+            configurations.put("AppCDS", List.of("-XX:SharedArchiveFile=" + ARCHIVE));
+        }
+
+        System.out.printf("# launches=%d, median ms from JVM launch%n%-14s", LAUNCHES, "config");
+        for (String milestone : MILESTONES) {
+            System.out.printf(" %-17s", milestone);
+        }
+        System.out.println();
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            long[][] samples = new long[MILESTONES.length][LAUNCHES];
+            launch(configuration.getValue()); // Warm the OS file cache
+            for (int i = 0; i < LAUNCHES; i++) {
+                long[] times = launch(configuration.getValue());
+                for (int m = 0; m < MILESTONES.length; m++) {
+                    samples[m][i] = times[m];
+                }
+            }
+            System.out.printf("%-14s", configuration.getKey());
+            for (long[] milestone : samples) {
+                Arrays.sort(milestone);
+                System.out.printf(" %-17d", milestone[LAUNCHES / 2]);
+            }
+            System.out.println();
+        }
+    }
+
+    // Milliseconds from starting the process to each milestone
+    private static long[] launch(List<String> jvmOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-Drestaurant.startup.trace=true");
+        command.add("-Drestaurant.startup.exitAfter=firstTableLoaded");
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("restaurant.") && !name.startsWith("restaurant.startup.")) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.addAll(List.of("-cp", System.getProperty("bench.driver", ""),
+                "-p", TARGET.resolve("modules").toString(), "-m", "restaurantDB"));
+
+        long[] times = new long[MILESTONES.length];
+        Arrays.fill(times, -1);
+        long launchedAt = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // "startup <milestone> <ms since JVM start> <epoch ms>"
+                String[] parts = line.split(" ");
+                if (parts.length == 4 && parts[0].equals("startup")) {
+                    int index = Arrays.asList(MILESTONES).indexOf(parts[1]);
+                    if (index >= 0) {
+                        times[index] = Long.parseLong(parts[3]) - launchedAt;
+                    }
+                }
+            }
+        }
+        if (process.waitFor() != 0 || times[MILESTONES.length - 1] < 0) {
+            throw new IllegalStateException("Launch failed (exit " + process.exitValue() + "): " + command);
+        }
+        return times;
+    }
+}
@@ -0,0 +1,114 @@
+package app.bench;
+
+import app.ConnectionPool;
+import app.DatabaseManager;
+import app.PooledConnection;
+import app.StaleRecordException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Several tills adding items to the same few open tabs at once.
+//
+// Each terminal reads a tab's item count, adds one and writes it back. With optimistic locking
+// (the versioned updateRecord) a conflicting write is retried from a fresh read, so the final
+// counts must equal the number of committed writes. The blind mode (plain updateRecord, as the
+// GUI used to do) shows how many updates the same workload loses without it.
+//
+//   bench/run.sh app.bench.TerminalStressBenchmark [-Dbench.tabs=4] [-Dbench.millis=3000]
+public class TerminalStressBenchmark {
+    private static final int TABS = Integer.getInteger("bench.tabs", 4);
+    private static final long RUN_MILLIS = Long.getLong("bench.millis", 3_000);
+    private static final int[] TERMINALS = {1, 2, 4, 8, 16};
+    private static final String[] COLUMNS = {"item_count", DatabaseManager.VERSION_COLUMN};
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-8s %-10s %-10s %-12s %-12s %-10s%n",
+                "mode", "terminals", "commits", "commits/sec", "conflicts", "lost");
+        for (boolean versioned : new boolean[]{true, false}) {
+            for (int terminals : TERMINALS) {
+                try (ConnectionPool pool = BenchmarkDatabase.open("terminals", terminals)) {
+                    reset(pool);
+                    run(new DatabaseManager(pool), terminals, versioned);
+                }
+            }
+        }
+    }
+
+    private static void reset(ConnectionPool pool) throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS bench_tabs");
+            stmt.execute("CREATE TABLE bench_tabs (tab_id INT PRIMARY KEY, item_count INT NOT NULL, "
+                    + DatabaseManager.VERSION_COLUMN + " INT NOT NULL DEFAULT 0)");
+            for (int i = 1; i <= TABS; i++) {
+                stmt.execute("INSERT INTO bench_tabs (tab_id, item_count) VALUES (" + i + ", 0)");
+            }
+        }
+    }
+
+    private static void run(DatabaseManager manager, int terminals, boolean versioned) throws Exception {
+        LongAdder commits = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+
+        for (int t = 0; t < terminals; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    while (System.currentTimeMillis() < deadline) {
+                        String tabId = String.valueOf(ThreadLocalRandom.current().nextInt(1, TABS + 1));
+                        if (addItem(manager, tabId, versioned, conflicts)) {
+                            commits.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        long total = 0;
+        for (String[] row : manager.getAllRecords("bench_tabs", new String[]{"item_count"})) {
+            total += Long.parseLong(row[0]);
+        }
+        System.out.printf("%-8s %-10d %-10d %-12.1f %-12d %-10d%n", versioned ? "version" : "blind",
+                terminals, commits.sum(), commits.sum() / seconds, conflicts.sum(), commits.sum() - total);
+    }
+
+    // Read-modify-write one tab; versioned writes retry from a fresh read until they win
+    private static boolean addItem(DatabaseManager manager, String tabId, boolean versioned,
+                                   LongAdder conflicts) throws SQLException {
+        while (true) {
+            String[] row = manager.getRecord("bench_tabs", COLUMNS, "tab_id", tabId);
+            String[] values = {String.valueOf(Integer.parseInt(row[0]) + 1)};
+            if (!versioned) {
+                return manager.updateRecord("bench_tabs", new String[]{"item_count"}, values, "tab_id", tabId);
+            }
+            try {
+                return manager.updateRecord("bench_tabs", new String[]{"item_count"}, values, "tab_id", tabId,
+                        Long.parseLong(row[1]));
+            } catch (StaleRecordException e) {
+                conflicts.increment();
+            }
+        }
+    }
+}
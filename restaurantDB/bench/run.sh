@@ -0,0 +1,29 @@
+#!/bin/sh
+# Build the app and the benchmarks with Maven, then run a benchmark main class.
+#
+#   bench/run.sh [app.bench.BenchmarkRunner] [-Dbench.rows=100000 ...] [args]
+#
+# -D options go to the JVM, anything else is passed to the main class. The JMH benchmarks run
+# from the same jar: java -jar bench/target/benchmarks.jar (see the README).
+# Run from the restaurantDB directory. benchmarks.jar bundles the H2 and MySQL drivers.
+set -e
+cd "$(dirname "$0")/.."
+
+MAIN=app.bench.BenchmarkRunner
+case "$1" in
+    app.bench.*) MAIN=$1; shift ;;
+esac
+
+mvn -B -q -f ../pom.xml package -DskipTests
+
+JVM_OPTS=
+while [ $# -gt 0 ]; do
+    case "$1" in
+        -D*) JVM_OPTS="$JVM_OPTS $1"; shift ;;
+        *) break ;;
+    esac
+done
+
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+# nodelay: see OrderApiServer; without it every API response waits ~40 ms for a delayed ACK
+exec java -Dbench.commit="$COMMIT" -Dsun.net.httpserver.nodelay=true $JVM_OPTS -cp bench/target/benchmarks.jar "$MAIN" "$@"
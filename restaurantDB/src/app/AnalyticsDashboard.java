@@ -0,0 +1,88 @@
+package app;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.LocalDate;
+import java.util.List;
+
+// Manager dashboard: best sellers, revenue per day and hour, and attendance ratios.
+// Every figure is aggregated in the database by SalesAnalytics and loaded in the background.
+public class AnalyticsDashboard extends JDialog {
+    private static final long serialVersionUID = 1L;
+    private static final int DAYS = 30;
+    private static final int TOP_ITEMS = 10;
+
+    private final transient AsyncDatabaseService databaseService;
+    private final DefaultTableModel topItemsModel =
+            readOnlyModel("Menu ID", "Item", "Quantity", "Revenue (Rp)");
+    private final DefaultTableModel dailyModel = readOnlyModel("Date", "Orders", "Revenue (Rp)");
+    private final DefaultTableModel hourlyModel = readOnlyModel("Hour", "Orders", "Revenue (Rp)");
+    private final DefaultTableModel attendanceModel =
+            readOnlyModel("Employee ID", "Present", "Late", "Absent", "Present %", "Late %", "Absent %");
+
+    public AnalyticsDashboard(Frame owner, AsyncDatabaseService databaseService) {
+        super(owner, "Analytics", false);
+        this.databaseService = databaseService;
+        setSize(700, 450);
+        setLocationRelativeTo(owner);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Top Items", new JScrollPane(new JTable(topItemsModel)));
+        tabs.addTab("Revenue / Day (" + DAYS + " days)", new JScrollPane(new JTable(dailyModel)));
+        tabs.addTab("Revenue / Hour (" + DAYS + " days)", new JScrollPane(new JTable(hourlyModel)));
+        tabs.addTab("Attendance", new JScrollPane(new JTable(attendanceModel)));
+
+        JButton btnRefresh = new JButton("Refresh");
+        btnRefresh.addActionListener(e -> refresh());
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(btnRefresh);
+
+        setLayout(new BorderLayout());
+        add(tabs, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    public void refresh() {
+        LocalDate to = LocalDate.now().plusDays(1);
+        LocalDate from = to.minusDays(DAYS);
+
+        load(db -> new SalesAnalytics(db).topSellingItems(TOP_ITEMS), topItemsModel,
+                item -> new Object[]{item.menuItemId(), item.itemName(), item.quantity(), Money.format(item.revenueMinor())});
+        load(db -> new SalesAnalytics(db).revenueByDay(from, to), dailyModel,
+                bucket -> new Object[]{bucket.bucket(), bucket.orders(), Money.format(bucket.revenueMinor())});
+        load(db -> new SalesAnalytics(db).revenueByHour(from, to), hourlyModel,
+                bucket -> new Object[]{bucket.bucket() + ":00", bucket.orders(), Money.format(bucket.revenueMinor())});
+        load(db -> new SalesAnalytics(db).attendance(), attendanceModel,
+                a -> new Object[]{a.employeeId(), a.present(), a.late(), a.absent(),
+                        percent(a.presentRatio()), percent(a.lateRatio()), percent(a.absentRatio())});
+    }
+
+    private <T> void load(AsyncDatabaseService.DbTask<List<T>> query, DefaultTableModel model,
+                          java.util.function.Function<T, Object[]> toRow) {
+        AsyncDatabaseService.onEdt(databaseService.submit(query), rows -> {
+            model.setRowCount(0);
+            for (T row : rows) {
+                model.addRow(toRow.apply(row));
+            }
+        }, ex -> {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading analytics: " + ex.getMessage());
+        });
+    }
+
+    private static String percent(double ratio) {
+        return String.format("%.1f", ratio * 100);
+    }
+}
@@ -0,0 +1,146 @@
+package app;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Everything the GUI needs from the database side, opened together by start() and closed
+// together on exit. start() blocks on the database, so MainApp runs it off the EDT while the
+// window is already showing.
+public final class AppServices implements AutoCloseable {
+    private final DatabaseManager databaseManager;
+    private final AsyncDatabaseService databaseService;
+    private final MenuCache menuCache;
+    private final ChangeFeed changeFeed;
+    private final OrderJournal orderJournal;
+    private final JournalReplayer journalReplayer;
+    private final MetricsFileReporter metricsReporter;
+    private final OrderApiServer apiServer;
+    private final KitchenQueue kitchenQueue;
+    private final KitchenFeed kitchenFeed;
+
+    private AppServices(DatabaseManager databaseManager, AsyncDatabaseService databaseService, MenuCache menuCache,
+                        ChangeFeed changeFeed, OrderJournal orderJournal, JournalReplayer journalReplayer,
+                        MetricsFileReporter metricsReporter, OrderApiServer apiServer, KitchenQueue kitchenQueue,
+                        KitchenFeed kitchenFeed) {
+        this.databaseManager = databaseManager;
+        this.databaseService = databaseService;
+        this.menuCache = menuCache;
+        this.changeFeed = changeFeed;
+        this.orderJournal = orderJournal;
+        this.journalReplayer = journalReplayer;
+        this.metricsReporter = metricsReporter;
+        this.apiServer = apiServer;
+        this.kitchenQueue = kitchenQueue;
+        this.kitchenFeed = kitchenFeed;
+    }
+
+    // Connect, prepare the schema and start the background services
+    public static AppServices start() throws SQLException, IOException {
+        ConnectionPool pool = DatabaseConnection.getPool();
+        DatabaseManager dbManager = new DatabaseManager(pool);
+        DatabaseConnection.getBackend().initialize(dbManager);
+        dbManager.setSalesSummaryEnabled(Boolean.getBoolean("restaurant.salesSummary"));
+        AsyncDatabaseService databaseService = new AsyncDatabaseService(dbManager);
+        MenuCache menuCache = new MenuCache(dbManager);
+        ChangeFeed changeFeed = ChangeFeed.open(dbManager, DatabaseConnection.getBackend());
+        changeFeed.subscribeRemote(menuCache); // Local menu edits already reach it directly
+
+        // Periodically append metrics to a file when -Drestaurant.metrics.file is set
+        String metricsFile = System.getProperty("restaurant.metrics.file");
+        MetricsFileReporter metricsReporter = metricsFile == null ? null
+                : new MetricsFileReporter(Paths.get(metricsFile), pool,
+                        Long.getLong("restaurant.metrics.flushSeconds", 60));
+
+        // Orders are journaled locally first when -Drestaurant.journal names the journal file
+        String journalFile = System.getProperty("restaurant.journal");
+        OrderJournal orderJournal = journalFile == null ? null : new OrderJournal(Paths.get(journalFile),
+                Integer.getInteger("restaurant.journal.capacity", OrderJournal.DEFAULT_CAPACITY),
+                Long.getLong("restaurant.journal.groupCommitMillis", 0));
+        JournalReplayer journalReplayer = orderJournal == null ? null : new JournalReplayer(orderJournal, dbManager);
+
+        // Serve the HTTP order API alongside the GUI when -Drestaurant.api.port is set
+        Integer apiPort = Integer.getInteger("restaurant.api.port");
+        OrderApiServer apiServer = null;
+        if (apiPort != null) {
+            apiServer = new OrderApiServer(dbManager, menuCache, orderJournal, new InetSocketAddress(apiPort),
+                    Integer.getInteger("restaurant.api.threads", pool.getMaxSize() * 2));
+            apiServer.start();
+        }
+
+        // Route every order, from any terminal, to the kitchen display when -Drestaurant.kitchen is set
+        KitchenQueue kitchenQueue = null;
+        KitchenFeed kitchenFeed = null;
+        if (Boolean.getBoolean("restaurant.kitchen")) {
+            long defaultPrepMillis = TimeUnit.SECONDS.toMillis(Long.getLong("restaurant.kitchen.prepSeconds", 600));
+            String prepTimesFile = System.getProperty("restaurant.kitchen.prepTimes");
+            KitchenPrepTimes prepTimes = prepTimesFile == null ? new KitchenPrepTimes(defaultPrepMillis)
+                    : KitchenPrepTimes.load(Paths.get(prepTimesFile), defaultPrepMillis);
+            kitchenQueue = new KitchenQueue(prepTimes,
+                    TimeUnit.MINUTES.toMillis(Long.getLong("restaurant.kitchen.targetMinutes", 20)));
+            kitchenFeed = new KitchenFeed(dbManager, kitchenQueue,
+                    TimeUnit.SECONDS.toMillis(Long.getLong("restaurant.kitchen.pollSeconds", 30)));
+            changeFeed.subscribe(kitchenFeed);
+        }
+
+        return new AppServices(dbManager, databaseService, menuCache, changeFeed, orderJournal, journalReplayer,
+                metricsReporter, apiServer, kitchenQueue, kitchenFeed);
+    }
+
+    // Load the menu in the background so the first bill does not wait for it
+    public void warmUp() {
+        databaseService.submit(db -> menuCache.size());
+    }
+
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    public AsyncDatabaseService getDatabaseService() {
+        return databaseService;
+    }
+
+    public MenuCache getMenuCache() {
+        return menuCache;
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    // Null unless -Drestaurant.journal is set
+    public OrderJournal getOrderJournal() {
+        return orderJournal;
+    }
+
+    // Null unless -Drestaurant.kitchen is set
+    public KitchenQueue getKitchenQueue() {
+        return kitchenQueue;
+    }
+
+    @Override
+    public void close() {
+        if (kitchenFeed != null) {
+            kitchenFeed.close();
+        }
+        if (apiServer != null) {
+            apiServer.close();
+        }
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+        if (journalReplayer != null) {
+            journalReplayer.close();
+            try {
+                orderJournal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing order journal: " + e.getMessage());
+            }
+        }
+        changeFeed.close();
+        databaseService.close();
+        DatabaseConnection.closePool();
+    }
+}
@@ -0,0 +1,145 @@
+package app;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Runs DatabaseManager work on a bounded pool of background threads so the Swing
+// Event Dispatch Thread never blocks on JDBC.
+//
+// - submit() rejects new work once maxPending tasks are queued or running (back-pressure);
+//   the returned future then fails with RejectedExecutionException.
+// - submitLatest() cancels the previous task submitted under the same key, so only the
+//   most recent request (e.g. the last table picked in the selector) delivers a result.
+// - onEdt() delivers results back on the EDT and drops cancelled tasks silently.
+public class AsyncDatabaseService implements AutoCloseable {
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    @FunctionalInterface
+    public interface DbTask<T> {
+        T run(DatabaseManager databaseManager) throws Exception;
+    }
+
+    private final DatabaseManager databaseManager;
+    private final ThreadPoolExecutor executor;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+    private volatile IntConsumer activityListener = count -> { };
+
+    public AsyncDatabaseService(DatabaseManager databaseManager) {
+        this(databaseManager, databaseManager.getPool().getMaxSize(), 32);
+    }
+
+    public AsyncDatabaseService(DatabaseManager databaseManager, int threads, int maxPending) {
+        this.databaseManager = databaseManager;
+        this.maxPending = maxPending;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Never more threads than pooled connections, otherwise workers just wait on the pool
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "db-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    // Called on the EDT with the number of tasks queued or running whenever it changes
+    public void setActivityListener(IntConsumer listener) {
+        this.activityListener = listener;
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public <T> CompletableFuture<T> submit(DbTask<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException(
+                    "The database is busy; please wait for the current operations to finish."));
+            return result;
+        }
+        fireActivity();
+
+        long queuedAt = Metrics.start();
+        FutureTask<Void> work = new FutureTask<>(() -> {
+            Metrics.record("async.queueWait", queuedAt, 0, true);
+            try {
+                result.complete(task.run(databaseManager));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+            return null;
+        });
+        // Cancelling the returned future interrupts the worker, or skips the task if still queued
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                work.cancel(true);
+            }
+            pending.decrementAndGet();
+            fireActivity();
+        });
+
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Like submit(), but cancels whatever was last submitted under the same key
+    public <T> CompletableFuture<T> submitLatest(String key, DbTask<T> task) {
+        CompletableFuture<T> future = submit(task);
+        CompletableFuture<?> previous = latestByKey.put(key, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        future.whenComplete((value, error) -> latestByKey.remove(key, future));
+        return future;
+    }
+
+    // Deliver the outcome on the EDT; cancelled tasks are ignored
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((value, error) -> {
+            if (error == null) {
+                onSuccess.accept(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }, EDT);
+    }
+
+    private void fireActivity() {
+        int count = pending.get();
+        SwingUtilities.invokeLater(() -> activityListener.accept(count));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
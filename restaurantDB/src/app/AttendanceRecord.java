@@ -0,0 +1,11 @@
+package app;
+
+import java.time.LocalDate;
+
+// A row of the 'employees' table: one employee's attendance status on a date
+public record AttendanceRecord(int employeeId, LocalDate date, String status, long version) implements TableRow {
+    @Override
+    public int key() {
+        return employeeId;
+    }
+}
@@ -0,0 +1,10 @@
+package app;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// A priced order as computed by DatabaseManager.getBill; amounts are in minor units
+public record Bill(int orderId, String customerName, Timestamp createdAt, List<Line> lines, long totalMinor) {
+    public record Line(int menuItemId, String itemName, int quantity, long unitPriceMinor, long lineTotalMinor) {
+    }
+}
@@ -0,0 +1,44 @@
+package app;
+
+// Service charge and tax added on top of a bill's item total, as rates in basis points
+// (1000 = 10%). Tax is charged on the items plus the service charge, as PB1 is.
+// Amounts are rounded half up to the minor unit.
+public record BillCharges(int serviceBasisPoints, int taxBasisPoints) {
+    public static final BillCharges NONE = new BillCharges(0, 0);
+
+    public BillCharges {
+        if (serviceBasisPoints < 0 || taxBasisPoints < 0) {
+            throw new IllegalArgumentException("Charge rates cannot be negative.");
+        }
+    }
+
+    // Rates from -Drestaurant.bill.servicePercent and -Drestaurant.bill.taxPercent, e.g. 5 or 7.5
+    public static BillCharges fromSystemProperties() {
+        return new BillCharges(percentProperty("restaurant.bill.servicePercent"),
+                percentProperty("restaurant.bill.taxPercent"));
+    }
+
+    private static int percentProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        return (int) Money.parseMinor(value); // Percent with two decimals = basis points
+    }
+
+    public long service(long subtotalMinor) {
+        return applyRate(subtotalMinor, serviceBasisPoints);
+    }
+
+    public long tax(long subtotalMinor) {
+        return applyRate(subtotalMinor + service(subtotalMinor), taxBasisPoints);
+    }
+
+    public long total(long subtotalMinor) {
+        return subtotalMinor + service(subtotalMinor) + tax(subtotalMinor);
+    }
+
+    private static long applyRate(long amountMinor, int basisPoints) {
+        return Math.floorDiv(amountMinor * basisPoints + 5_000, 10_000);
+    }
+}
@@ -0,0 +1,61 @@
+package app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+// Plain-text struk for a Bill, as shown in the GUI and saved to bill files.
+// Renders a precompiled BillTemplate with the configured service charge and tax; formatTo
+// lets batch callers reuse one StringBuilder for many bills. Thread-safe.
+public final class BillFormatter {
+    private static volatile BillFormatter defaultFormatter;
+
+    private final BillTemplate template;
+    private final BillCharges charges;
+    private final RupiahFormat rupiah;
+
+    public BillFormatter(BillTemplate template, BillCharges charges, RupiahFormat rupiah) {
+        this.template = template;
+        this.charges = charges;
+        this.rupiah = rupiah;
+    }
+
+    // The bundled template, or -Drestaurant.bill.template, with charges from the system properties
+    public static BillFormatter getDefault() {
+        BillFormatter formatter = defaultFormatter;
+        if (formatter == null) {
+            synchronized (BillFormatter.class) {
+                formatter = defaultFormatter;
+                if (formatter == null) {
+                    String templateFile = System.getProperty("restaurant.bill.template");
+                    try {
+                        BillTemplate template = templateFile == null
+                                ? BillTemplate.bundled() : BillTemplate.load(Paths.get(templateFile));
+                        formatter = new BillFormatter(template, BillCharges.fromSystemProperties(), new RupiahFormat());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not load the bill template", e);
+                    }
+                    defaultFormatter = formatter;
+                }
+            }
+        }
+        return formatter;
+    }
+
+    // Format struk untuk pesanan dengan beberapa item
+    public static String format(Bill orderBill) {
+        return getDefault().render(orderBill);
+    }
+
+    public String render(Bill orderBill) {
+        return formatTo(orderBill, new StringBuilder(512)).toString();
+    }
+
+    public StringBuilder formatTo(Bill orderBill, StringBuilder out) {
+        return template.render(orderBill, charges, rupiah, out);
+    }
+
+    public BillCharges getCharges() {
+        return charges;
+    }
+}
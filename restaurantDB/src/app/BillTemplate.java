@@ -0,0 +1,337 @@
+package app;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// A bill layout compiled once from text, then rendered for any number of bills.
+//
+//   {field}        the value as is
+//   {field:12}     right-aligned in 12 columns
+//   {field:-20}    left-aligned in 20 columns; longer values wrap onto continuation lines
+//                  indented to the same column
+//   {#lines}...{/lines}    repeated for every bill line
+//   {?field}...{/field}    only when the field has a value (non-zero amount, known date, ...)
+//
+// Bill fields: orderId, date, customer, subtotal, service, servicePercent, tax, taxPercent, total.
+// Line fields: item, qty, price, amount. Amounts are printed with a RupiahFormat.
+//
+// Rendering appends to the caller's StringBuilder and allocates nothing per field, except
+// for the remainder of a wrapped value. A compiled template is immutable and thread-safe.
+public final class BillTemplate {
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
+
+    private enum Field {
+        ORDER_ID("orderId", false),
+        DATE("date", false),
+        CUSTOMER("customer", false),
+        SUBTOTAL("subtotal", false),
+        SERVICE("service", false),
+        SERVICE_PERCENT("servicePercent", false),
+        TAX("tax", false),
+        TAX_PERCENT("taxPercent", false),
+        TOTAL("total", false),
+        ITEM("item", true),
+        QTY("qty", true),
+        PRICE("price", true),
+        AMOUNT("amount", true);
+
+        final String key;
+        final boolean perLine;
+
+        Field(String key, boolean perLine) {
+            this.key = key;
+            this.perLine = perLine;
+        }
+
+        static Field forKey(String key) {
+            for (Field field : values()) {
+                if (field.key.equals(key)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private interface Node {
+    }
+
+    private record Literal(String text) implements Node {
+    }
+
+    // width 0 = as is; negative = left-aligned and wrapped
+    private record Placeholder(Field field, int width) implements Node {
+    }
+
+    private record Lines(Node[] body) implements Node {
+    }
+
+    private record Conditional(Field field, Node[] body) implements Node {
+    }
+
+    // Per-render state
+    private static final class Context {
+        final Bill bill;
+        final BillCharges charges;
+        final long service;
+        final long tax;
+        Bill.Line line;
+        String overflow; // Rest of a wrapped value, printed after the line it started on
+        int overflowColumn;
+        int overflowWidth;
+
+        Context(Bill bill, BillCharges charges) {
+            this.bill = bill;
+            this.charges = charges;
+            this.service = charges.service(bill.totalMinor());
+            this.tax = charges.tax(bill.totalMinor());
+        }
+    }
+
+    private final Node[] nodes;
+
+    private BillTemplate(Node[] nodes) {
+        this.nodes = nodes;
+    }
+
+    // The layout bundled with the app (bill-template.txt)
+    public static BillTemplate bundled() throws IOException {
+        try (InputStream in = BillTemplate.class.getResourceAsStream("bill-template.txt")) {
+            if (in == null) {
+                throw new IOException("bill-template.txt not found on the module path.");
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public static BillTemplate load(Path file) throws IOException {
+        return compile(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException naming the offset of the first error
+    public static BillTemplate compile(String text) {
+        String normalized = text.replace("\r\n", "\n");
+        int[] pos = {0};
+        Node[] nodes = parse(normalized, pos, null, false);
+        return new BillTemplate(nodes);
+    }
+
+    // Parse until the closing tag of the enclosing section (or the end for the top level)
+    private static Node[] parse(String text, int[] pos, String closing, boolean inLines) {
+        List<Node> nodes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]);
+            if (c != '{') {
+                literal.append(c);
+                pos[0]++;
+                continue;
+            }
+            int end = text.indexOf('}', pos[0]);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed '{' at offset " + pos[0] + " of the bill template.");
+            }
+            String tag = text.substring(pos[0] + 1, end);
+            int tagStart = pos[0];
+            pos[0] = end + 1;
+            if (literal.length() > 0) {
+                nodes.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+
+            if (tag.startsWith("/")) {
+                if (!tag.substring(1).equals(closing)) {
+                    throw new IllegalArgumentException("Unexpected {" + tag + "} at offset " + tagStart
+                            + " of the bill template.");
+                }
+                return nodes.toArray(new Node[0]);
+            } else if (tag.equals("#lines")) {
+                if (inLines) {
+                    throw new IllegalArgumentException("Nested {#lines} at offset " + tagStart + " of the bill template.");
+                }
+                nodes.add(new Lines(parse(text, pos, "lines", true)));
+            } else if (tag.startsWith("?")) {
+                Field field = field(tag.substring(1), tagStart, inLines);
+                nodes.add(new Conditional(field, parse(text, pos, field.key, inLines)));
+            } else {
+                int colon = tag.indexOf(':');
+                Field field = field(colon < 0 ? tag : tag.substring(0, colon), tagStart, inLines);
+                int width = 0;
+                if (colon >= 0) {
+                    try {
+                        width = Integer.parseInt(tag.substring(colon + 1));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Bad width in {" + tag + "} at offset " + tagStart
+                                + " of the bill template.");
+                    }
+                }
+                nodes.add(new Placeholder(field, width));
+            }
+        }
+        if (closing != null) {
+            throw new IllegalArgumentException("Missing {/" + closing + "} in the bill template.");
+        }
+        if (literal.length() > 0) {
+            nodes.add(new Literal(literal.toString()));
+        }
+        return nodes.toArray(new Node[0]);
+    }
+
+    private static Field field(String key, int offset, boolean inLines) {
+        Field field = Field.forKey(key);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field '" + key + "' at offset " + offset + " of the bill template.");
+        }
+        if (field.perLine && !inLines) {
+            throw new IllegalArgumentException("'" + key + "' at offset " + offset + " is only valid inside {#lines}.");
+        }
+        return field;
+    }
+
+    public StringBuilder render(Bill bill, BillCharges charges, RupiahFormat rupiah, StringBuilder out) {
+        Context context = new Context(bill, charges);
+        render(nodes, context, rupiah, out);
+        if (context.overflow != null) {
+            out.append('\n');
+            appendOverflow(context, out);
+        }
+        return out;
+    }
+
+    private static void render(Node[] nodes, Context context, RupiahFormat rupiah, StringBuilder out) {
+        for (Node node : nodes) {
+            if (node instanceof Literal literal) {
+                String text = literal.text();
+                int newline = context.overflow == null ? -1 : text.indexOf('\n');
+                if (newline < 0) {
+                    out.append(text);
+                } else {
+                    // The wrapped value continues right below the line it started on
+                    out.append(text, 0, newline + 1);
+                    appendOverflow(context, out);
+                    out.append(text, newline + 1, text.length());
+                }
+            } else if (node instanceof Placeholder placeholder) {
+                int start = out.length();
+                appendValue(placeholder.field(), context, rupiah, out);
+                int width = placeholder.width();
+                int length = out.length() - start;
+                if (width > 0) {
+                    for (int i = length; i < width; i++) {
+                        out.insert(start, ' ');
+                    }
+                } else if (width < 0) {
+                    int columns = -width;
+                    if (length > columns) {
+                        int cut = wrapPoint(out, start, columns);
+                        context.overflow = out.substring(start + cut).trim();
+                        context.overflowColumn = start - lineStart(out, start);
+                        context.overflowWidth = columns;
+                        out.setLength(start + cut);
+                        length = cut;
+                    }
+                    for (int i = length; i < columns; i++) {
+                        out.append(' ');
+                    }
+                }
+            } else if (node instanceof Lines lines) {
+                for (Bill.Line line : context.bill.lines()) {
+                    context.line = line;
+                    render(lines.body(), context, rupiah, out);
+                }
+                context.line = null;
+            } else if (node instanceof Conditional conditional) {
+                if (hasValue(conditional.field(), context)) {
+                    render(conditional.body(), context, rupiah, out);
+                }
+            }
+        }
+    }
+
+    // Continuation lines for a wrapped value, each indented to the column it started in
+    private static void appendOverflow(Context context, StringBuilder out) {
+        String overflow = context.overflow;
+        context.overflow = null;
+        while (!overflow.isEmpty()) {
+            for (int i = 0; i < context.overflowColumn; i++) {
+                out.append(' ');
+            }
+            int start = out.length();
+            out.append(overflow);
+            if (overflow.length() > context.overflowWidth) {
+                int cut = wrapPoint(out, start, context.overflowWidth);
+                overflow = out.substring(start + cut).trim();
+                out.setLength(start + cut);
+            } else {
+                overflow = "";
+            }
+            out.append('\n');
+        }
+    }
+
+    // Break at the last space that fits, or hard at the width
+    private static int wrapPoint(StringBuilder out, int start, int columns) {
+        for (int i = columns; i > 0; i--) {
+            if (out.charAt(start + i) == ' ') {
+                return i;
+            }
+        }
+        return columns;
+    }
+
+    private static int lineStart(StringBuilder out, int position) {
+        for (int i = position - 1; i >= 0; i--) {
+            if (out.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasValue(Field field, Context context) {
+        return switch (field) {
+            case ORDER_ID -> context.bill.orderId() > 0;
+            case DATE -> context.bill.createdAt() != null;
+            case CUSTOMER -> context.bill.customerName() != null && !context.bill.customerName().isEmpty();
+            case SERVICE, SERVICE_PERCENT -> context.charges.serviceBasisPoints() > 0;
+            case TAX, TAX_PERCENT -> context.charges.taxBasisPoints() > 0;
+            case SUBTOTAL, TOTAL -> true;
+            case ITEM, QTY, PRICE, AMOUNT -> context.line != null;
+        };
+    }
+
+    private static void appendValue(Field field, Context context, RupiahFormat rupiah, StringBuilder out) {
+        Bill bill = context.bill;
+        switch (field) {
+            case ORDER_ID -> {
+                if (bill.orderId() > 0) {
+                    out.append(bill.orderId());
+                }
+            }
+            case DATE -> {
+                if (bill.createdAt() != null) {
+                    DATE_FORMAT.formatTo(bill.createdAt().toInstant(), out);
+                }
+            }
+            case CUSTOMER -> out.append(bill.customerName() == null ? "" : bill.customerName());
+            case SUBTOTAL -> rupiah.appendTo(out, bill.totalMinor());
+            case SERVICE -> rupiah.appendTo(out, context.service);
+            case SERVICE_PERCENT -> rupiah.appendPercent(out, context.charges.serviceBasisPoints());
+            case TAX -> rupiah.appendTo(out, context.tax);
+            case TAX_PERCENT -> rupiah.appendPercent(out, context.charges.taxBasisPoints());
+            case TOTAL -> rupiah.appendTo(out, bill.totalMinor() + context.service + context.tax);
+            case ITEM -> out.append(context.line.itemName());
+            case QTY -> out.append(context.line.quantity());
+            case PRICE -> rupiah.appendTo(out, context.line.unitPriceMinor());
+            case AMOUNT -> rupiah.appendTo(out, context.line.lineTotalMinor());
+        }
+    }
+}
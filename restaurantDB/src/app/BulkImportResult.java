@@ -0,0 +1,13 @@
+package app;
+
+import java.util.List;
+
+// Outcome of DatabaseManager.bulkInsert: rows written and rows rejected (row numbers are 1-based)
+public record BulkImportResult(long inserted, List<RowError> errors) {
+    public record RowError(long rowNumber, String message) {
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
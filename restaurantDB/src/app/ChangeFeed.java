@@ -0,0 +1,181 @@
+package app;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Row-level change notifications for every terminal, so views can apply deltas instead of
+// reloading whole tables.
+//
+// Changes made through this process's DatabaseManager are delivered straight away. When other
+// processes can write too (a shared server), local changes are also appended to change_log and
+// every terminal polls it for rows with a higher seq written by someone else. In-process
+// (embedded) databases have no other writers, so nothing is logged or polled.
+// A log row whose seq commits after a higher one was already polled is missed; switching
+// tables reloads it.
+//
+// Subscribers are called on the writing thread or the poller thread; hop to the EDT for Swing.
+public class ChangeFeed implements TableChangeListener, AutoCloseable {
+    private static final String LOG_TABLE = "change_log";
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO change_log (origin, table_name, key_column, key_value, change_type) VALUES (?, ?, ?, ?, ?)";
+    private static final String POLL_SQL =
+            "SELECT seq, table_name, key_column, key_value, change_type FROM change_log "
+            + "WHERE seq > ? AND origin <> ? ORDER BY seq";
+    private static final String LAST_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM change_log";
+    private static final String PRUNE_SQL = "DELETE FROM change_log WHERE changed_at < ?";
+    private static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final DatabaseManager databaseManager;
+    private final ConnectionPool pool;
+    private final String origin = UUID.randomUUID().toString();
+    private final List<TableChangeListener> allSubscribers = new CopyOnWriteArrayList<>();
+    private final List<TableChangeListener> remoteSubscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller;
+    private long lastSeq;
+    private long lastPrune = System.currentTimeMillis();
+
+    // pollMillis <= 0 delivers local changes only (no change_log)
+    public ChangeFeed(DatabaseManager databaseManager, long pollMillis) throws SQLException {
+        this.databaseManager = databaseManager;
+        this.pool = databaseManager.getPool();
+        if (pollMillis > 0) {
+            lastSeq = queryLastSeq(); // Only changes from now on
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "change-feed-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        } else {
+            poller = null;
+        }
+        databaseManager.addChangeListener(this);
+    }
+
+    // Poll change_log only when the backend can have writers outside this process
+    public static ChangeFeed open(DatabaseManager databaseManager, StorageBackend backend) throws SQLException {
+        if (backend.isInProcess()) {
+            return new ChangeFeed(databaseManager, 0);
+        }
+        try {
+            return new ChangeFeed(databaseManager, Long.getLong("restaurant.changeFeed.pollMillis", 1_000));
+        } catch (SQLException e) {
+            // Typically a server database without change_log yet (see schema.sql)
+            System.err.println("Change log unavailable, other terminals' changes will not be shown live: "
+                    + e.getMessage());
+            return new ChangeFeed(databaseManager, 0);
+        }
+    }
+
+    // Receive every change, local and remote
+    public void subscribe(TableChangeListener listener) {
+        allSubscribers.add(listener);
+    }
+
+    // Receive only changes made by other terminals, for listeners already registered with DatabaseManager
+    public void subscribeRemote(TableChangeListener listener) {
+        remoteSubscribers.add(listener);
+    }
+
+    public void unsubscribe(TableChangeListener listener) {
+        allSubscribers.remove(listener);
+        remoteSubscribers.remove(listener);
+    }
+
+    // A change made through this process's DatabaseManager
+    @Override
+    public void tableChanged(TableChange change) {
+        if (poller != null) {
+            try {
+                appendToLog(change);
+            } catch (SQLException e) {
+                System.err.println("Could not record change for other terminals: " + e.getMessage());
+            }
+        }
+        deliver(allSubscribers, change);
+    }
+
+    private void appendToLog(TableChange change) throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(INSERT_LOG_SQL);
+            stmt.setString(1, origin);
+            stmt.setString(2, change.tableName());
+            stmt.setString(3, change.keyColumn());
+            stmt.setString(4, change.keyValue());
+            stmt.setString(5, change.type().name());
+            stmt.executeUpdate();
+        }
+    }
+
+    private long queryLastSeq() throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(LAST_SEQ_SQL);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private void poll() {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(POLL_SQL);
+            stmt.setLong(1, lastSeq);
+            stmt.setString(2, origin);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lastSeq = rs.getLong(1);
+                    TableChange change = new TableChange(TableChange.Type.valueOf(rs.getString(5)),
+                            rs.getString(2), rs.getString(3), rs.getString(4));
+                    deliver(remoteSubscribers, change);
+                    deliver(allSubscribers, change);
+                }
+            }
+            prune(pooled);
+        } catch (SQLException | RuntimeException e) {
+            // Keep polling; a dropped connection is replaced on the next borrow
+            System.err.println("Change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    private void prune(PooledConnection pooled) throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastPrune < PRUNE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPrune = now;
+        PreparedStatement stmt = pooled.statements().prepare(PRUNE_SQL);
+        stmt.setTimestamp(1, new Timestamp(now - RETENTION_MILLIS));
+        stmt.executeUpdate();
+    }
+
+    private static void deliver(List<TableChangeListener> subscribers, TableChange change) {
+        if (LOG_TABLE.equals(change.tableName())) {
+            return;
+        }
+        for (TableChangeListener listener : subscribers) {
+            try {
+                listener.tableChanged(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        databaseManager.removeChangeListener(this);
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package app;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Column-oriented copy of a table for the GUI: int arrays for INT/DATE columns, long arrays
+// for MONEY and dictionary-encoded TEXT columns (each distinct string is stored once; rows
+// hold int codes). Rows are in key order.
+//
+// Sorting uses a per-column permutation built once on first use by sorting packed
+// (sort key, row) longs, so no boxing or comparator calls. Text search runs against the
+// dictionary: prefix matches by binary search over the sorted, lower-cased distinct values,
+// substring matches by one scan over them, then a single pass over the row codes.
+//
+// Row changes are applied in place: an update rewrites one row, an insert or delete shifts the
+// rows after it. A string not yet in a dictionary gets the next code as an unsorted tail entry,
+// which search checks one by one. Each dictionary counts the rows using every code and is
+// compacted (unused strings dropped, the rest sorted again) once the tail and unused entries
+// outgrow an eighth of it, or before its column is sorted. Changes drop the sort permutations;
+// they are rebuilt when next needed.
+//
+// Not thread-safe: build it on any thread, then read and change it from one (the EDT).
+public final class ColumnarSnapshot<T extends TableRow> {
+    private static final int NULL_CODE = -1;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private final TableMeta<T> meta;
+    private final int columnCount;
+    private int size;
+    private int[] keys;
+    private long[] versions;
+    private final int[][] ints;       // INT and DATE (epoch day) columns, null for others
+    private final long[][] longs;     // MONEY columns, null for others
+    private final int[][] codes;      // TEXT columns, null for others
+    private final Dictionary[] dictionaries;
+    private final int[][] permutations; // Ascending row order per column, built on demand
+
+    private ColumnarSnapshot(TableMeta<T> meta, int capacity) {
+        this.meta = meta;
+        this.columnCount = meta.columns().size();
+        this.keys = new int[Math.max(capacity, 16)];
+        this.versions = new long[keys.length];
+        this.ints = new int[columnCount][];
+        this.longs = new long[columnCount][];
+        this.codes = new int[columnCount][];
+        this.dictionaries = new Dictionary[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            switch (meta.columns().get(c).type()) {
+                case TEXT -> {
+                    codes[c] = new int[keys.length];
+                    dictionaries[c] = new Dictionary();
+                }
+                case MONEY -> longs[c] = new long[keys.length];
+                default -> ints[c] = new int[keys.length];
+            }
+        }
+        this.permutations = new int[columnCount][];
+    }
+
+    // Build from rows in key order, as returned by DatabaseManager.getAllRecords(TableMeta)
+    public static <T extends TableRow> ColumnarSnapshot<T> of(TableMeta<T> meta, List<T> rows) {
+        ColumnarSnapshot<T> snapshot = new ColumnarSnapshot<>(meta, rows.size());
+        for (T row : rows) {
+            snapshot.write(snapshot.size++, row);
+        }
+        for (int c = 0; c < snapshot.columnCount; c++) {
+            if (snapshot.codes[c] != null) {
+                snapshot.compact(c);
+            }
+        }
+        return snapshot;
+    }
+
+    public TableMeta<T> meta() {
+        return meta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int key(int row) {
+        return keys[row];
+    }
+
+    // The value shown in a cell, as TableMeta.display would show it for the record
+    public Object cell(int row, int column) {
+        TableMeta.ColumnType type = meta.columns().get(column).type();
+        return switch (type) {
+            case TEXT -> dictionaries[column].value(codes[column][row]);
+            case MONEY -> TableMeta.cell(type, longs[column][row]);
+            default -> TableMeta.cell(type, number(column, row));
+        };
+    }
+
+    // Rebuild the record for one row, e.g. the selected one
+    public T row(int row) {
+        long[] numbers = new long[columnCount];
+        String[] texts = new String[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            if (codes[c] != null) {
+                texts[c] = dictionaries[c].value(codes[c][row]);
+            } else {
+                numbers[c] = number(c, row);
+            }
+        }
+        return meta.build(numbers, texts, versions[row]);
+    }
+
+    private long number(int column, int row) {
+        if (longs[column] != null) {
+            return longs[column][row];
+        }
+        int value = ints[column][row];
+        return value == NULL_INT ? TableMeta.NULL_NUMBER : value;
+    }
+
+    // Row index of a key, or a negative insertion point as in Arrays.binarySearch
+    public int indexOfKey(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    // Row indexes to show, in display order. Rows whose textColumn contains (or, with prefix,
+    // starts with) the query are kept, ignoring case; a null or empty query keeps every row.
+    // sortColumn < 0 keeps key order.
+    public int[] view(int textColumn, String query, boolean prefix, int sortColumn, boolean descending) {
+        boolean[] matching = query == null || query.isEmpty() ? null
+                : dictionaries[textColumn].matching(query.toLowerCase(Locale.ROOT), prefix);
+        int[] order = sortColumn < 0 ? null : permutation(sortColumn);
+        int[] rowCodes = matching == null ? null : codes[textColumn];
+
+        // Count first so the result is the only array sized by the row count
+        int count = size;
+        if (rowCodes != null) {
+            count = 0;
+            for (int i = 0; i < size; i++) {
+                int code = rowCodes[i];
+                if (code != NULL_CODE && matching[code]) {
+                    count++;
+                }
+            }
+        }
+        int[] view = new int[count];
+        int next = 0;
+        for (int i = 0; i < size && next < count; i++) {
+            int position = descending ? size - 1 - i : i;
+            int row = order == null ? position : order[position];
+            if (rowCodes != null) {
+                int code = rowCodes[row];
+                if (code == NULL_CODE || !matching[code]) {
+                    continue;
+                }
+            }
+            view[next++] = row;
+        }
+        return view;
+    }
+
+    private int[] permutation(int column) {
+        int[] order = permutations[column];
+        if (order == null) {
+            if (codes[column] != null && dictionaries[column].hasTail()) {
+                compact(column); // Tail codes have no rank yet
+            }
+            order = sortRows(sortKeys(column));
+            permutations[column] = order;
+        }
+        return order;
+    }
+
+    // An int per row that sorts like the column's values, nulls first
+    private int[] sortKeys(int column) {
+        if (ints[column] != null) {
+            return ints[column];
+        }
+        int[] sortKeys = new int[size];
+        if (codes[column] != null) {
+            int[] rank = dictionaries[column].rank();
+            int[] rowCodes = codes[column];
+            for (int i = 0; i < size; i++) {
+                sortKeys[i] = rowCodes[i] == NULL_CODE ? -1 : rank[rowCodes[i]];
+            }
+            return sortKeys;
+        }
+        // Money: rank each value among the distinct sorted values
+        long[] values = longs[column];
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            sortKeys[i] = Arrays.binarySearch(sorted, 0, distinct, values[i]);
+        }
+        return sortKeys;
+    }
+
+    // Stable: equal keys stay in key (row) order
+    private int[] sortRows(int[] sortKeys) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) sortKeys[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    // Insert the row, or replace the row with the same key; returns its row index
+    public int put(T row) {
+        int index = indexOfKey(row.key());
+        if (index >= 0) {
+            release(index);
+        } else {
+            index = -index - 1;
+            if (size == keys.length) {
+                grow(size * 2);
+            }
+            move(index, index + 1);
+            size++;
+        }
+        write(index, row);
+        changed();
+        return index;
+    }
+
+    // Remove the row with this key; returns the row index it had, or -1 if there is none
+    public int remove(int key) {
+        int index = indexOfKey(key);
+        if (index < 0) {
+            return -1;
+        }
+        release(index);
+        move(index + 1, index);
+        size--;
+        changed();
+        return index;
+    }
+
+    private void write(int index, T row) {
+        keys[index] = row.key();
+        versions[index] = row.version();
+        for (int c = 0; c < columnCount; c++) {
+            TableMeta.Column<T> column = meta.columns().get(c);
+            if (codes[c] != null) {
+                codes[c][index] = dictionaries[c].encode(column.text().apply(row));
+            } else if (longs[c] != null) {
+                longs[c][index] = column.number().applyAsLong(row);
+            } else {
+                long value = column.number().applyAsLong(row);
+                ints[c][index] = value == TableMeta.NULL_NUMBER ? NULL_INT : (int) value;
+            }
+        }
+    }
+
+    // The row's text codes are about to be overwritten or removed
+    private void release(int index) {
+        for (int c = 0; c < columnCount; c++) {
+            if (codes[c] != null) {
+                dictionaries[c].release(codes[c][index]);
+            }
+        }
+    }
+
+    // Move rows from..size-1 to start at 'to'
+    private void move(int from, int to) {
+        int length = size - from;
+        System.arraycopy(keys, from, keys, to, length);
+        System.arraycopy(versions, from, versions, to, length);
+        for (int c = 0; c < columnCount; c++) {
+            Object column = codes[c] != null ? codes[c] : longs[c] != null ? longs[c] : ints[c];
+            System.arraycopy(column, from, column, to, length);
+        }
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        for (int c = 0; c < columnCount; c++) {
+            if (codes[c] != null) {
+                codes[c] = Arrays.copyOf(codes[c], capacity);
+            } else if (longs[c] != null) {
+                longs[c] = Arrays.copyOf(longs[c], capacity);
+            } else {
+                ints[c] = Arrays.copyOf(ints[c], capacity);
+            }
+        }
+    }
+
+    private void changed() {
+        Arrays.fill(permutations, null);
+        for (int c = 0; c < columnCount; c++) {
+            if (codes[c] != null && dictionaries[c].needsCompaction()) {
+                compact(c);
+            }
+        }
+    }
+
+    private void compact(int column) {
+        int[] remap = dictionaries[column].compact();
+        if (remap != null) {
+            int[] rowCodes = codes[column];
+            for (int i = 0; i < size; i++) {
+                if (rowCodes[i] != NULL_CODE) {
+                    rowCodes[i] = remap[rowCodes[i]];
+                }
+            }
+        }
+    }
+
+    // Distinct strings of one TEXT column plus what search and sorting need from them.
+    // Codes below sortedCount are in lowerSorted; later ones are the unsorted tail.
+    private static final class Dictionary {
+        private String[] values = new String[16];
+        private int[] counts = new int[16];  // Rows using each code
+        private int count;                   // Codes handed out
+        private int unused;                  // Codes no row uses any more
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private String[] lowerSorted = new String[0]; // Distinct lower-cased values in order
+        private int[] sortedCodes = new int[0];       // Code of each entry of lowerSorted
+        private int[] rank = new int[0];              // Position of each code in case-insensitive order
+        private int sortedCount;
+
+        String value(int code) {
+            return code == NULL_CODE ? null : values[code];
+        }
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                    counts = Arrays.copyOf(counts, count * 2);
+                }
+                code = count++;
+                values[code] = value;
+                codesByValue.put(value, code);
+            } else if (counts[code] == 0) {
+                unused--;
+            }
+            counts[code]++;
+            return code;
+        }
+
+        void release(int code) {
+            if (code != NULL_CODE && --counts[code] == 0) {
+                unused++;
+            }
+        }
+
+        boolean hasTail() {
+            return count > sortedCount;
+        }
+
+        boolean needsCompaction() {
+            return count - sortedCount + unused > 16 + count / 8;
+        }
+
+        // Drop unused values and sort the rest. Returns the new code of each old code, or null
+        // if the codes did not change.
+        int[] compact() {
+            int[] remap = null;
+            if (unused > 0) {
+                remap = new int[count];
+                int kept = 0;
+                for (int code = 0; code < count; code++) {
+                    if (counts[code] == 0) {
+                        codesByValue.remove(values[code]);
+                        remap[code] = NULL_CODE;
+                    } else {
+                        remap[code] = kept;
+                        values[kept] = values[code];
+                        counts[kept] = counts[code];
+                        codesByValue.put(values[kept], kept);
+                        kept++;
+                    }
+                }
+                Arrays.fill(values, kept, count, null);
+                count = kept;
+                unused = 0;
+            }
+            sort();
+            return remap;
+        }
+
+        private void sort() {
+            int n = count;
+            String[] lower = new String[n];
+            for (int i = 0; i < n; i++) {
+                lower[i] = values[i].toLowerCase(Locale.ROOT);
+            }
+            Integer[] byValue = new Integer[n]; // Only on compaction, not per sort or search
+            for (int i = 0; i < n; i++) {
+                byValue[i] = i;
+            }
+            Arrays.sort(byValue, (a, b) -> lower[a].compareTo(lower[b]));
+            lowerSorted = new String[n];
+            sortedCodes = new int[n];
+            rank = new int[n];
+            for (int i = 0; i < n; i++) {
+                int code = byValue[i];
+                lowerSorted[i] = lower[code];
+                sortedCodes[i] = code;
+                // Values equal ignoring case share a rank so sorting keeps them in key order
+                rank[code] = i > 0 && lowerSorted[i].equals(lowerSorted[i - 1]) ? rank[sortedCodes[i - 1]] : i;
+            }
+            sortedCount = n;
+        }
+
+        int[] rank() {
+            return rank;
+        }
+
+        // Which codes match a lower-cased query
+        boolean[] matching(String query, boolean prefix) {
+            boolean[] matching = new boolean[count];
+            if (prefix) {
+                int i = lowerBound(query);
+                while (i < lowerSorted.length && lowerSorted[i].startsWith(query)) {
+                    matching[sortedCodes[i++]] = true;
+                }
+            } else {
+                for (int i = 0; i < lowerSorted.length; i++) {
+                    if (lowerSorted[i].contains(query)) {
+                        matching[sortedCodes[i]] = true;
+                    }
+                }
+            }
+            for (int code = sortedCount; code < count; code++) {
+                String lower = values[code].toLowerCase(Locale.ROOT);
+                matching[code] = prefix ? lower.startsWith(query) : lower.contains(query);
+            }
+            return matching;
+        }
+
+        private int lowerBound(String query) {
+            int low = 0;
+            int high = lowerSorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (lowerSorted[mid].compareTo(query) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
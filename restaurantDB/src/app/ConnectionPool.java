@@ -0,0 +1,239 @@
+package app;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// A small bounded JDBC connection pool.
+// Connections are validated when borrowed, evicted after sitting idle too long,
+// and reported when a borrower holds one longer than the leak threshold. A report names the
+// borrowing thread and time; -Drestaurant.pool.trackLeaks=true also records the stack trace of
+// every borrow so the report can show where it happened (costly, for debugging only).
+public class ConnectionPool implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 10_000;
+    private static final boolean TRACK_LEAKS = Boolean.getBoolean("restaurant.pool.trackLeaks");
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        this(url, user, password, maxSize, 5_000, 300_000, 60_000);
+    }
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_MILLIS, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Borrow a connection; close the returned handle to give it back to the pool.
+    // Throws SQLTransientConnectionException when none frees up within the borrow timeout.
+    public PooledConnection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(this, DriverManager.getConnection(url, user, password));
+                createdCount.increment();
+            }
+            pooled.markBorrowed(TRACK_LEAKS && leakThresholdMillis > 0);
+            active.add(pooled);
+            borrowCount.increment();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Most recently used connections first, so the rest of the idle set can age out
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isValid(pooled.connection())) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Called by PooledConnection.close()
+    void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+        try {
+            Connection connection = pooled.connection();
+            if (closed || connection.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            // Never hand a half-finished transaction to the next borrower
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            pooled.markReleased();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        try {
+            pooled.closePhysical();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        Metrics.recordNanos("pool.wait", waitNanos);
+    }
+
+    // Evict idle connections past the idle timeout and report suspected leaks
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastReleasedAt() > idleTimeoutMillis && idle.remove(pooled)) {
+                discard(pooled);
+                evictedCount.increment();
+            }
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledConnection pooled : active) {
+                if (now - pooled.borrowedAt() > leakThresholdMillis && pooled.reportLeak()) {
+                    leakCount.increment();
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pooled.borrowedAt()) + " ms by thread '" + pooled.borrowThread()
+                            + "', borrowed at " + Instant.ofEpochMilli(pooled.borrowedAt()));
+                    Throwable site = pooled.borrowSite();
+                    if (site != null) {
+                        site.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(
+                maxSize,
+                active.size(),
+                idle.size(),
+                permits.getQueueLength(),
+                borrows,
+                borrows == 0 ? 0 : totalWaitNanos.sum() / borrows / 1_000,
+                maxWaitNanos.get() / 1_000,
+                createdCount.sum(),
+                evictedCount.sum(),
+                timeoutCount.sum(),
+                leakCount.sum());
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        // Borrowed connections are closed as they are released
+    }
+
+    // Snapshot of pool metrics; wait times are in microseconds
+    public record PoolStats(int maxSize, int active, int idle, int waiting, long borrows,
+                            long avgWaitMicros, long maxWaitMicros, long created, long evicted,
+                            long timeouts, long leaks) {
+    }
+}
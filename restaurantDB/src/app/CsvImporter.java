@@ -0,0 +1,43 @@
+package app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+// Streams a CSV file into a table through DatabaseManager.bulkInsert.
+// The first record must be a header naming the table columns, as in the files written by
+// Generate Report (e.g. customers_report.csv). Rows are read lazily, so the whole file is
+// never held in memory.
+public class CsvImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final DatabaseManager databaseManager;
+    private final int batchSize;
+
+    public CsvImporter(DatabaseManager databaseManager) {
+        this(databaseManager, DEFAULT_BATCH_SIZE);
+    }
+
+    public CsvImporter(DatabaseManager databaseManager, int batchSize) {
+        this.databaseManager = databaseManager;
+        this.batchSize = batchSize;
+    }
+
+    public BulkImportResult importFile(String tableName, Path file) throws IOException, SQLException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             CsvReader csv = new CsvReader(reader)) {
+            if (!csv.hasNext()) {
+                throw new IOException("CSV file is empty: " + file);
+            }
+            String[] header = csv.next();
+            for (int i = 0; i < header.length; i++) {
+                header[i] = header[i].trim();
+            }
+            // Error row numbers refer to data rows, i.e. the line after the header is row 1
+            return databaseManager.bulkInsert(tableName, header, csv, batchSize);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package app;
+
+// A row of the 'customers' table; orderMenu holds the menu codes typed at the till, e.g. "1, 3x2"
+public record Customer(int id, String name, String orderMenu, long version) implements TableRow {
+    @Override
+    public int key() {
+        return id;
+    }
+}
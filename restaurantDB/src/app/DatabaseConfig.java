@@ -0,0 +1,73 @@
+package app;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+// Database settings, read from restaurant.properties in the working directory (or the file
+// named by -Drestaurant.config), then from restaurant.local.properties next to it, which is
+// not committed and is where credentials belong. The environment variables RESTAURANT_DB_USER
+// and RESTAURANT_DB_PASSWORD override both files. Any key can finally be overridden with a
+// system property of the same name prefixed by "restaurant.", e.g. -Drestaurant.db.backend=embedded.
+//
+//   db.backend   mysql | embedded
+//   db.url       JDBC URL; defaults to the backend's own
+//   db.user      user name
+//   db.password  password
+//   db.poolSize  maximum pooled connections
+public record DatabaseConfig(String backend, String url, String user, String password, int poolSize) {
+    public static final String DEFAULT_FILE = "restaurant.properties";
+    public static final String LOCAL_FILE = "restaurant.local.properties";
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    public static DatabaseConfig load() throws IOException {
+        Path file = Paths.get(System.getProperty("restaurant.config", DEFAULT_FILE));
+        Properties properties = new Properties();
+        loadIfExists(file, properties);
+        Path directory = file.toAbsolutePath().getParent();
+        loadIfExists(directory == null ? Paths.get(LOCAL_FILE) : directory.resolve(LOCAL_FILE), properties);
+        copyEnv("RESTAURANT_DB_USER", "db.user", properties);
+        copyEnv("RESTAURANT_DB_PASSWORD", "db.password", properties);
+        return fromProperties(properties);
+    }
+
+    // Later files override keys from earlier ones
+    private static void loadIfExists(Path file, Properties properties) throws IOException {
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+    }
+
+    private static void copyEnv(String variable, String key, Properties properties) {
+        String value = System.getenv(variable);
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    public static DatabaseConfig fromProperties(Properties properties) {
+        String backend = setting(properties, "db.backend", "mysql");
+        return new DatabaseConfig(
+                backend,
+                setting(properties, "db.url", null),
+                setting(properties, "db.user", ""),
+                setting(properties, "db.password", ""),
+                Integer.parseInt(setting(properties, "db.poolSize", String.valueOf(DEFAULT_POOL_SIZE))));
+    }
+
+    private static String setting(Properties properties, String key, String defaultValue) {
+        return System.getProperty("restaurant." + key, properties.getProperty(key, defaultValue));
+    }
+
+    @Override
+    public String toString() {
+        // Keep the password out of logs
+        return "DatabaseConfig[backend=" + backend + ", url=" + url + ", user=" + user + ", poolSize=" + poolSize + "]";
+    }
+}
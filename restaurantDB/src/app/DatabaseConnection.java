@@ -1,22 +1,52 @@
 package app;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
+import java.io.IOException;
 import java.sql.SQLException;
 
+// Application-wide storage backend and connection pool, set up from DatabaseConfig
 public class DatabaseConnection {
-    private static Connection connection;
+    private static DatabaseConfig config;
+    private static StorageBackend backend;
+    private static ConnectionPool pool;
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection("jdbc:mysql://localhost:3306/myrestaurant", "root", "hayate123");
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            DatabaseConfig loaded = getConfig();
+            StorageBackend selected = StorageBackend.forName(loaded.backend());
+            ConnectionPool opened = selected.openPool(loaded);
+            try {
+                // Fail fast if the database is unreachable
+                opened.borrow().close();
+            } catch (SQLException e) {
+                opened.close();
+                throw e;
+            }
+            backend = selected;
+            pool = opened;
         }
-        return connection;
+        return pool;
     }
 
-    public static void closeConnection() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
+    public static synchronized StorageBackend getBackend() throws SQLException {
+        getPool();
+        return backend;
+    }
+
+    public static synchronized DatabaseConfig getConfig() throws SQLException {
+        if (config == null) {
+            try {
+                config = DatabaseConfig.load();
+            } catch (IOException e) {
+                throw new SQLException("Could not read database configuration: " + e.getMessage(), e);
+            }
+        }
+        return config;
+    }
+
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
 }
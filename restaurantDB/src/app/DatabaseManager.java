@@ -1,26 +1,303 @@
 package app;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseManager {
-    private Connection connection;
+    // Receives rows from streamRecords; the array is reused for every row, so copy it to keep it
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(String[] values) throws IOException;
+    }
+
+    // Row version for optimistic locking; bumped by every versioned update
+    public static final String VERSION_COLUMN = "version";
+    // Tables edited from the tills, which carry a version column
+    private static final String[] VERSIONED_TABLES = {"customers", "employees", "menu"};
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE IF NOT EXISTS (\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (customer_id) VALUES (?)";
+    // Copies the current menu price into the line; inserts nothing if the item does not exist
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (order_id, menu_item_id, quantity, unit_price) "
+            + "SELECT ?, menu_item_id, ?, price FROM menu WHERE menu_item_id = ?";
+    // Line totals and the grand total for one order, computed in a single query
+    private static final String BILL_SELECT =
+            "SELECT o.order_id, c.customer_name, o.created_at, m.menu_item_id, m.item_name, "
+            + "oi.quantity, oi.unit_price, oi.quantity * oi.unit_price AS line_total, "
+            + "SUM(oi.quantity * oi.unit_price) OVER () AS grand_total "
+            + "FROM orders o "
+            + "JOIN customers c ON c.customer_id = o.customer_id "
+            + "JOIN order_items oi ON oi.order_id = o.order_id "
+            + "JOIN menu m ON m.menu_item_id = oi.menu_item_id ";
+    private static final String BILL_BY_ORDER_SQL = BILL_SELECT
+            + "WHERE o.order_id = ? ORDER BY m.menu_item_id";
+    private static final String BILL_LATEST_FOR_CUSTOMER_SQL = BILL_SELECT
+            + "WHERE o.order_id = (SELECT MAX(order_id) FROM orders WHERE customer_id = ?) "
+            + "ORDER BY m.menu_item_id";
+    // Orders applied from each till's OrderJournal, keyed by journal id and seq
+    private static final String CREATE_JOURNAL_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS journal_applied (journal_id VARCHAR(36) NOT NULL, seq BIGINT NOT NULL, "
+            + "order_id INT, PRIMARY KEY (journal_id, seq))";
+    private static final String JOURNAL_SEEN_SQL = "SELECT 1 FROM journal_applied WHERE journal_id = ? AND seq = ?";
+    private static final String JOURNAL_MARK_SQL =
+            "INSERT INTO journal_applied (journal_id, seq, order_id) VALUES (?, ?, ?)";
+    private static final String ORDER_IDS_SQL = "SELECT order_id FROM orders ORDER BY order_id";
+    private static final String ORDER_IDS_AFTER_SQL =
+            "SELECT order_id FROM orders WHERE order_id > ? ORDER BY order_id";
+    private static final String MAX_ORDER_ID_SQL = "SELECT COALESCE(MAX(order_id), 0) FROM orders";
+    private static final String ORDER_IDS_BETWEEN_SQL =
+            "SELECT order_id FROM orders WHERE created_at >= ? AND created_at < ? ORDER BY order_id";
+
+    private final ConnectionPool pool;
+    private final List<TableChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean salesSummaryEnabled;
+
+    public DatabaseManager(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    // When enabled, every order also updates the sales_daily_summary table in the same transaction
+    public void setSalesSummaryEnabled(boolean enabled) {
+        this.salesSummaryEnabled = enabled;
+    }
+
+    // Create any missing tables from the bundled schema.sql
+    public void applySchema() throws SQLException {
+        String script = schemaScript();
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            for (String sql : script.replaceAll("--[^\n]*", "").split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql.trim());
+                }
+            }
+        }
+        addVersionColumns();
+    }
+
+    // Like applySchema(), but skips the DDL when every table in schema.sql already exists,
+    // which one metadata query can tell; keeps startup fast on an existing database
+    public void applySchemaIfMissing() throws SQLException {
+        Set<String> missing = new HashSet<>();
+        Matcher tables = CREATE_TABLE.matcher(schemaScript());
+        while (tables.find()) {
+            missing.add(tables.group(1).toLowerCase());
+        }
+        try (PooledConnection pooled = pool.borrow();
+             ResultSet rs = pooled.connection().getMetaData().getTables(
+                     pooled.connection().getCatalog(), null, null, new String[]{"TABLE"})) {
+            while (rs.next()) {
+                missing.remove(rs.getString("TABLE_NAME").toLowerCase());
+            }
+        }
+        if (missing.isEmpty()) {
+            addVersionColumns();
+        } else {
+            applySchema();
+        }
+    }
+
+    private static String schemaScript() throws SQLException {
+        try (InputStream in = DatabaseManager.class.getResourceAsStream("schema.sql")) {
+            if (in == null) {
+                throw new SQLException("schema.sql not found on the module path.");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read schema.sql", e);
+        }
+    }
 
-    public DatabaseManager(Connection connection) {
-        this.connection = connection;
+    // Add the version column to tables created before optimistic locking; a no-op once present
+    public void addVersionColumns() throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            DatabaseMetaData metaData = pooled.connection().getMetaData();
+            for (String table : VERSIONED_TABLES) {
+                boolean present;
+                try (ResultSet rs = metaData.getColumns(pooled.connection().getCatalog(), null, table, VERSION_COLUMN)) {
+                    present = rs.next();
+                }
+                if (!present) {
+                    stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + VERSION_COLUMN + " INT NOT NULL DEFAULT 0");
+                }
+            }
+        }
+    }
+
+    // Register a listener for successful inserts, updates and deletes
+    public void addChangeListener(TableChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(TableChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void fireChange(TableChange.Type type, String tableName, String keyColumn, String keyValue) {
+        TableChange change = new TableChange(type, tableName, keyColumn, keyValue);
+        for (TableChangeListener listener : changeListeners) {
+            try {
+                listener.tableChanged(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     // Fetch all records from a table
     public List<String[]> getAllRecords(String tableName, String[] columns) throws SQLException {
-        List<String[]> records = new ArrayList<>();
-        String sql = "SELECT * FROM " + tableName;
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            List<String[]> records = new ArrayList<>();
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.selectAll(tableName, columns));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String[] row = new String[columns.length];
+                        for (int i = 0; i < columns.length; i++) {
+                            row[i] = rs.getString(i + 1);
+                        }
+                        records.add(row);
+                    }
+                }
+            }
+            success = true;
+            rowCount = records.size();
+            return records;
+        } finally {
+            Metrics.record("db.getAllRecords", start, rowCount, success);
+        }
+    }
+
+    // Stream every record of a table through the handler without materializing the result.
+    // Uses a forward-only, read-only cursor with a fetch size hint (MySQL needs useCursorFetch=true
+    // in the URL to honour it).
+    public long streamRecords(String tableName, String[] columns, RowHandler handler)
+            throws SQLException, IOException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            long count = 0;
+            try (PooledConnection pooled = pool.borrow();
+                 PreparedStatement stmt = pooled.connection().prepareStatement(QueryPlans.selectAll(tableName, columns),
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    String[] row = new String[columns.length];
+                    while (rs.next()) {
+                        for (int i = 0; i < columns.length; i++) {
+                            row[i] = rs.getString(i + 1);
+                        }
+                        handler.row(row);
+                        count++;
+                    }
+                }
+            }
+            success = true;
+            rowCount = count;
+            return count;
+        } finally {
+            Metrics.record("db.streamRecords", start, rowCount, success);
+        }
+    }
+
+    // Count the records in a table
+    public int countRecords(String tableName) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.count(tableName));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    int count = rs.next() ? rs.getInt(1) : 0;
+                    success = true;
+                    return count;
+                }
+            }
+        } finally {
+            Metrics.record("db.countRecords", start, 0, success);
+        }
+    }
+
+    // Fetch one page of records ordered by the key column, starting after afterKey
+    // (or from the beginning when afterKey is null)
+    public List<String[]> getPage(String tableName, String[] columns, String keyColumn,
+                                  String afterKey, int pageSize) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt;
+                if (afterKey == null) {
+                    stmt = pooled.statements().prepare(QueryPlans.pageFirst(tableName, columns, keyColumn));
+                    stmt.setInt(1, pageSize);
+                } else {
+                    stmt = pooled.statements().prepare(QueryPlans.pageAfter(tableName, columns, keyColumn));
+                    stmt.setString(1, afterKey);
+                    stmt.setInt(2, pageSize);
+                }
+                List<String[]> page = readPage(stmt, columns.length, pageSize);
+                success = true;
+                rowCount = page.size();
+                return page;
+            }
+        } finally {
+            Metrics.record("db.getPage", start, rowCount, success);
+        }
+    }
+
+    // Fetch one page of records by row offset; slower than getPage for deep offsets
+    public List<String[]> getPageAt(String tableName, String[] columns, String keyColumn,
+                                    int offset, int pageSize) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.pageOffset(tableName, columns, keyColumn));
+                stmt.setInt(1, pageSize);
+                stmt.setInt(2, offset);
+                List<String[]> page = readPage(stmt, columns.length, pageSize);
+                success = true;
+                rowCount = page.size();
+                return page;
+            }
+        } finally {
+            Metrics.record("db.getPageAt", start, rowCount, success);
+        }
+    }
+
+    private List<String[]> readPage(PreparedStatement stmt, int columnCount, int pageSize) throws SQLException {
+        stmt.setFetchSize(pageSize);
+        List<String[]> records = new ArrayList<>(pageSize);
+        try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                String[] row = new String[columns.length];
-                for (int i = 0; i < columns.length; i++) {
-                    row[i] = rs.getString(columns[i]);
+                String[] row = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getString(i + 1);
                 }
                 records.add(row);
             }
@@ -28,83 +305,709 @@ public class DatabaseManager {
         return records;
     }
 
+    // Fetch the whole menu with prices in minor units
+    public List<MenuItem> getMenuItems() throws SQLException {
+        return getAllRecords(TableMeta.MENU);
+    }
+
+    // Fetch one row as strings, or null if no row has that key
+    public String[] getRecord(String tableName, String[] columns, String keyColumn, String keyValue) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.selectByKey(tableName, columns, keyColumn));
+                stmt.setString(1, keyValue);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    String[] row = null;
+                    if (rs.next()) {
+                        row = new String[columns.length];
+                        for (int i = 0; i < columns.length; i++) {
+                            row[i] = rs.getString(i + 1);
+                        }
+                    }
+                    success = true;
+                    return row;
+                }
+            }
+        } finally {
+            Metrics.record("db.getRecord", start, 0, success);
+        }
+    }
+
+    // Fetch one menu item, or null if it does not exist
+    public MenuItem getMenuItem(int menuItemId) throws SQLException {
+        return getRecord(TableMeta.MENU, menuItemId);
+    }
+
+    // Fetch all rows of an editable table as typed records, in key order
+    public <T extends TableRow> List<T> getAllRecords(TableMeta<T> table) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(table.selectAllSql);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<T> rows = table.mapAll(rs, 16);
+                    success = true;
+                    rowCount = rows.size();
+                    return rows;
+                }
+            }
+        } finally {
+            Metrics.record("db.getAllRecords", start, rowCount, success);
+        }
+    }
+
+    // Typed keyset page: rows after afterKey (or from the beginning when null), in key order
+    public <T extends TableRow> List<T> getPage(TableMeta<T> table, Integer afterKey, int pageSize) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt;
+                if (afterKey == null) {
+                    stmt = pooled.statements().prepare(table.pageFirstSql);
+                    stmt.setInt(1, pageSize);
+                } else {
+                    stmt = pooled.statements().prepare(table.pageAfterSql);
+                    stmt.setInt(1, afterKey);
+                    stmt.setInt(2, pageSize);
+                }
+                List<T> page = readPage(stmt, table, pageSize);
+                success = true;
+                rowCount = page.size();
+                return page;
+            }
+        } finally {
+            Metrics.record("db.getPage", start, rowCount, success);
+        }
+    }
+
+    // Typed page by row offset; slower than getPage for deep offsets
+    public <T extends TableRow> List<T> getPageAt(TableMeta<T> table, int offset, int pageSize) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(table.pageOffsetSql);
+                stmt.setInt(1, pageSize);
+                stmt.setInt(2, offset);
+                List<T> page = readPage(stmt, table, pageSize);
+                success = true;
+                rowCount = page.size();
+                return page;
+            }
+        } finally {
+            Metrics.record("db.getPageAt", start, rowCount, success);
+        }
+    }
+
+    private <T extends TableRow> List<T> readPage(PreparedStatement stmt, TableMeta<T> table, int pageSize) throws SQLException {
+        stmt.setFetchSize(pageSize);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return table.mapAll(rs, pageSize);
+        }
+    }
+
+    // Fetch one typed row, or null if no row has that key
+    public <T extends TableRow> T getRecord(TableMeta<T> table, int key) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(table.selectByKeySql);
+                stmt.setInt(1, key);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    T row = rs.next() ? table.map(rs) : null;
+                    success = true;
+                    return row;
+                }
+            }
+        } finally {
+            Metrics.record("db.getRecord", start, 0, success);
+        }
+    }
+
     // Insert a new record into a table
     public boolean insertRecord(String tableName, String[] columns, String[] values) {
-        // Validate that the number of columns matches the number of values
-        if (columns.length != values.length) {
-            System.err.println("Error: Number of columns and values do not match.");
-            return false;
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            // Validate that the number of columns matches the number of values
+            if (columns.length != values.length) {
+                System.err.println("Error: Number of columns and values do not match.");
+                return false;
+            }
+
+            String generatedKey;
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepareReturningKeys(QueryPlans.insert(tableName, columns));
+                // Set the values dynamically based on the number of columns
+                for (int i = 0; i < values.length; i++) {
+                    stmt.setString(i + 1, values[i]); // Parameter indexing starts from 1
+                }
+
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    return false;
+                }
+                generatedKey = generatedKey(stmt);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+
+            // Listeners run after the connection is back in the pool, they may need one themselves
+            fireChange(TableChange.Type.INSERT, tableName, null, generatedKey);
+            success = true;
+            return true; // The record was added successfully
+        } finally {
+            Metrics.record("db.insertRecord", start, success ? 1 : 0, success);
         }
+    }
 
-        // Construct the SQL insert statement dynamically
-        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-        for (int i = 0; i < columns.length; i++) {
-            sql.append(columns[i]);
-            if (i < columns.length - 1) {
-                sql.append(", ");
+    // Insert many rows in one transaction using JDBC batches of batchSize rows.
+    // Each batch runs under a savepoint; if it fails it is rolled back and replayed row by row,
+    // so the good rows are kept and every bad row is reported. Commits once at the end.
+    public BulkImportResult bulkInsert(String tableName, String[] columns, Iterator<String[]> rows,
+                                       int batchSize) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size must be at least 1.");
             }
+
+            long inserted = 0;
+            List<BulkImportResult.RowError> errors = new ArrayList<>();
+            try (PooledConnection pooled = pool.borrow()) {
+                Connection connection = pooled.connection();
+                connection.setAutoCommit(false);
+                try {
+                    PreparedStatement stmt = pooled.statements().prepare(QueryPlans.insert(tableName, columns));
+                    List<String[]> batch = new ArrayList<>(batchSize);
+                    long[] batchRowNumbers = new long[batchSize];
+                    long rowNumber = 0;
+
+                    while (rows.hasNext()) {
+                        String[] row = rows.next();
+                        rowNumber++;
+                        if (row.length != columns.length) {
+                            errors.add(new BulkImportResult.RowError(rowNumber,
+                                    "Expected " + columns.length + " values but found " + row.length + "."));
+                            continue;
+                        }
+                        batchRowNumbers[batch.size()] = rowNumber;
+                        batch.add(row);
+                        if (batch.size() == batchSize) {
+                            inserted += flushBatch(connection, stmt, batch, batchRowNumbers, errors);
+                            batch.clear();
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        inserted += flushBatch(connection, stmt, batch, batchRowNumbers, errors);
+                    }
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+
+            if (inserted > 0) {
+                // Keys are not tracked for bulk loads; listeners treat this as "table changed"
+                fireChange(TableChange.Type.INSERT, tableName, null, null);
+            }
+            success = true;
+            rowCount = inserted;
+            return new BulkImportResult(inserted, errors);
+        } finally {
+            Metrics.record("db.bulkInsert", start, rowCount, success);
         }
-        sql.append(") VALUES (");
-        for (int i = 0; i < columns.length; i++) {
-            sql.append("?");
-            if (i < columns.length - 1) {
-                sql.append(", ");
+    }
+
+    private long flushBatch(Connection connection, PreparedStatement stmt, List<String[]> batch,
+                            long[] rowNumbers, List<BulkImportResult.RowError> errors) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            for (String[] row : batch) {
+                bindStrings(stmt, row);
+                stmt.addBatch();
             }
+            stmt.executeBatch();
+            connection.releaseSavepoint(savepoint);
+            return batch.size();
+        } catch (BatchUpdateException e) {
+            stmt.clearBatch();
+            connection.rollback(savepoint);
         }
-        sql.append(")");
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
-            // Set the values dynamically based on the number of columns
-            for (int i = 0; i < values.length; i++) {
-                stmt.setString(i + 1, values[i]); // Parameter indexing starts from 1
+        // Replay the failed batch one row at a time to find the bad rows
+        long inserted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Savepoint rowSavepoint = connection.setSavepoint();
+            try {
+                bindStrings(stmt, batch.get(i));
+                stmt.executeUpdate();
+                connection.releaseSavepoint(rowSavepoint);
+                inserted++;
+            } catch (SQLException e) {
+                connection.rollback(rowSavepoint);
+                errors.add(new BulkImportResult.RowError(rowNumbers[i], e.getMessage()));
             }
+        }
+        return inserted;
+    }
 
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0; // Return true if the record was added successfully
+    private void bindStrings(PreparedStatement stmt, String[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            stmt.setString(i + 1, values[i]);
+        }
+    }
+
+    // The auto-generated key of the row just inserted, if the table has one
+    private String generatedKey(PreparedStatement stmt) {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            return keys != null && keys.next() ? keys.getString(1) : null;
         } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+            return null;
+        }
+    }
+
+    // Update the record whose key column equals keyValue
+    public boolean updateRecord(String tableName, String[] columns, String[] values,
+                                String keyColumn, String keyValue) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            // Ensure columns and values arrays have the same length
+            if (columns.length != values.length) {
+                throw new IllegalArgumentException("Columns and values array must have the same length.");
+            }
+
+            boolean updated;
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.updateByKey(tableName, columns, keyColumn));
+                // Set the values for the placeholders in the PreparedStatement
+                for (int i = 0; i < values.length; i++) {
+                    stmt.setString(i + 1, values[i]); // Set each value to the corresponding placeholder
+                }
+                stmt.setString(values.length + 1, keyValue); // Key goes last, in the WHERE clause
+
+                // Execute the update; true if at least one row was updated
+                updated = stmt.executeUpdate() > 0;
+            }
+            if (updated) {
+                fireChange(TableChange.Type.UPDATE, tableName, keyColumn, keyValue);
+            }
+            success = true;
+            return updated;
+        } finally {
+            Metrics.record("db.updateRecord", start, 0, success);
+        }
+    }
+
+    // Optimistic update of a row last read at expectedVersion; bumps its version.
+    // Returns false if the row no longer exists and throws StaleRecordException if another
+    // terminal changed it since it was read.
+    public boolean updateRecord(String tableName, String[] columns, String[] values,
+                                String keyColumn, String keyValue, long expectedVersion) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            if (columns.length != values.length) {
+                throw new IllegalArgumentException("Columns and values array must have the same length.");
+            }
+
+            boolean updated;
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(
+                        QueryPlans.updateByKeyAndVersion(tableName, columns, keyColumn));
+                for (int i = 0; i < values.length; i++) {
+                    stmt.setString(i + 1, values[i]);
+                }
+                stmt.setString(values.length + 1, keyValue);
+                stmt.setLong(values.length + 2, expectedVersion);
+                updated = stmt.executeUpdate() > 0 || checkConflict(pooled, tableName, keyColumn, keyValue, expectedVersion);
+            }
+            if (updated) {
+                fireChange(TableChange.Type.UPDATE, tableName, keyColumn, keyValue);
+            }
+            success = true;
+            return updated;
+        } finally {
+            Metrics.record("db.updateRecord", start, 0, success);
+        }
+    }
+
+    // Delete the record whose key column equals keyValue
+    public boolean deleteRecord(String tableName, String keyColumn, String keyValue) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            boolean deleted;
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.deleteByKey(tableName, keyColumn));
+                stmt.setString(1, keyValue);
+                deleted = stmt.executeUpdate() > 0;
+            }
+            if (deleted) {
+                fireChange(TableChange.Type.DELETE, tableName, keyColumn, keyValue);
+            }
+            success = true;
+            return deleted;
+        } finally {
+            Metrics.record("db.deleteRecord", start, 0, success);
+        }
+    }
+
+    // Optimistic delete of a row last read at expectedVersion; same outcomes as the versioned updateRecord
+    public boolean deleteRecord(String tableName, String keyColumn, String keyValue, long expectedVersion) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            boolean deleted;
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(QueryPlans.deleteByKeyAndVersion(tableName, keyColumn));
+                stmt.setString(1, keyValue);
+                stmt.setLong(2, expectedVersion);
+                deleted = stmt.executeUpdate() > 0 || checkConflict(pooled, tableName, keyColumn, keyValue, expectedVersion);
+            }
+            if (deleted) {
+                fireChange(TableChange.Type.DELETE, tableName, keyColumn, keyValue);
+            }
+            success = true;
+            return deleted;
+        } finally {
+            Metrics.record("db.deleteRecord", start, 0, success);
+        }
+    }
+
+    // Called when a versioned write matched no row: false if the row is gone, otherwise it was changed
+    private boolean checkConflict(PooledConnection pooled, String tableName, String keyColumn, String keyValue,
+                                  long expectedVersion) throws SQLException {
+        PreparedStatement stmt = pooled.statements().prepare(
+                QueryPlans.selectByKey(tableName, new String[]{VERSION_COLUMN}, keyColumn));
+        stmt.setString(1, keyValue);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return false;
+            }
+            throw new StaleRecordException(tableName, keyValue, expectedVersion, rs.getLong(1));
+        }
+    }
+
+    // Write a whole order (header plus batched lines) in one transaction; returns the new order_id
+    public int insertOrder(int customerId, List<OrderLine> lines) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            int orderId;
+            try (PooledConnection pooled = pool.borrow()) {
+                Connection connection = pooled.connection();
+                connection.setAutoCommit(false);
+                try {
+                    orderId = writeOrder(pooled, customerId, lines);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+            fireChange(TableChange.Type.INSERT, "orders", "order_id", String.valueOf(orderId));
+            success = true;
+            return orderId;
+        } finally {
+            Metrics.record("db.insertOrder", start, 0, success);
+        }
+    }
+
+    // Add a customer together with their first order in one transaction; returns the new customer_id
+    public int insertCustomerOrder(String customerName, String orderMenu, List<OrderLine> lines) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            int customerId;
+            int orderId;
+            try (PooledConnection pooled = pool.borrow()) {
+                Connection connection = pooled.connection();
+                connection.setAutoCommit(false);
+                try {
+                    customerId = writeCustomer(pooled, customerName, orderMenu);
+                    orderId = writeOrder(pooled, customerId, lines);
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+            fireChange(TableChange.Type.INSERT, "customers", "customer_id", String.valueOf(customerId));
+            fireChange(TableChange.Type.INSERT, "orders", "order_id", String.valueOf(orderId));
+            success = true;
+            return customerId;
+        } finally {
+            Metrics.record("db.insertCustomerOrder", start, 0, success);
+        }
+    }
+
+    // Apply orders from an OrderJournal in one transaction. Orders already applied under this
+    // journal id are skipped, so replaying a batch after a crash or a failed commit is harmless.
+    // An order the database rejects (e.g. an unknown menu item) is rolled back on its own, marked
+    // as applied so it is not retried forever, and reported with its seq as the row number.
+    // Connection and transient errors fail the whole batch for the caller to retry.
+    public BulkImportResult applyJournaledOrders(String journalId, List<OrderJournal.Entry> entries)
+            throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long applied = 0;
+        try {
+            List<BulkImportResult.RowError> errors = new ArrayList<>();
+            List<int[]> created = new ArrayList<>(); // customer_id (0 if existing), order_id
+            try (PooledConnection pooled = pool.borrow()) {
+                Connection connection = pooled.connection();
+                connection.setAutoCommit(false);
+                try {
+                    PreparedStatement seen = pooled.statements().prepare(JOURNAL_SEEN_SQL);
+                    PreparedStatement mark = pooled.statements().prepare(JOURNAL_MARK_SQL);
+                    for (OrderJournal.Entry entry : entries) {
+                        seen.setString(1, journalId);
+                        seen.setLong(2, entry.seq());
+                        try (ResultSet rs = seen.executeQuery()) {
+                            if (rs.next()) {
+                                continue;
+                            }
+                        }
+
+                        Integer orderId = null;
+                        Savepoint savepoint = connection.setSavepoint();
+                        try {
+                            int customerId = entry.customerId() > 0 ? entry.customerId()
+                                    : writeCustomer(pooled, entry.customerName(), entry.orderMenu());
+                            orderId = writeOrder(pooled, customerId, entry.lines());
+                            connection.releaseSavepoint(savepoint);
+                            created.add(new int[]{entry.customerId() > 0 ? 0 : customerId, orderId});
+                        } catch (SQLException e) {
+                            if (isTransient(e)) {
+                                throw e;
+                            }
+                            connection.rollback(savepoint);
+                            errors.add(new BulkImportResult.RowError(entry.seq(), e.getMessage()));
+                        }
+
+                        mark.setString(1, journalId);
+                        mark.setLong(2, entry.seq());
+                        if (orderId != null) {
+                            mark.setInt(3, orderId);
+                        } else {
+                            mark.setNull(3, Types.INTEGER);
+                        }
+                        mark.executeUpdate();
+                    }
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+
+            for (int[] ids : created) {
+                if (ids[0] != 0) {
+                    fireChange(TableChange.Type.INSERT, "customers", "customer_id", String.valueOf(ids[0]));
+                }
+                fireChange(TableChange.Type.INSERT, "orders", "order_id", String.valueOf(ids[1]));
+            }
+            applied = created.size();
+            success = true;
+            return new BulkImportResult(applied, errors);
+        } finally {
+            Metrics.record("db.applyJournaledOrders", start, applied, success);
+        }
+    }
+
+    // Lost connections and timeouts are worth retrying; anything else is a problem with the data
+    static boolean isTransient(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException || e instanceof SQLRecoverableException
+                || (state != null && state.startsWith("08"));
+    }
+
+    // Create the journal_applied table on databases whose schema predates it; a no-op once present
+    public void createJournalTable() throws SQLException {
+        try (PooledConnection pooled = pool.borrow();
+             Statement stmt = pooled.connection().createStatement()) {
+            stmt.execute(CREATE_JOURNAL_TABLE_SQL);
+        }
+    }
+
+    // Caller owns the transaction; returns the new customer_id
+    private int writeCustomer(PooledConnection pooled, String customerName, String orderMenu) throws SQLException {
+        PreparedStatement stmt = pooled.statements().prepareReturningKeys(
+                QueryPlans.insert("customers", new String[]{"customer_name", "order_menu"}));
+        stmt.setString(1, customerName);
+        stmt.setString(2, orderMenu);
+        stmt.executeUpdate();
+        String key = generatedKey(stmt);
+        if (key == null) {
+            throw new SQLException("No customer_id was generated for the new customer.");
+        }
+        return Integer.parseInt(key);
+    }
+
+    // Caller owns the transaction
+    private int writeOrder(PooledConnection pooled, int customerId, List<OrderLine> lines) throws SQLException {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one item.");
+        }
+
+        PreparedStatement orderStmt = pooled.statements().prepareReturningKeys(INSERT_ORDER_SQL);
+        orderStmt.setInt(1, customerId);
+        orderStmt.executeUpdate();
+        String key = generatedKey(orderStmt);
+        if (key == null) {
+            throw new SQLException("No order_id was generated for the new order.");
         }
+        int orderId = Integer.parseInt(key);
+
+        PreparedStatement itemStmt = pooled.statements().prepare(INSERT_ORDER_ITEM_SQL);
+        for (OrderLine line : lines) {
+            itemStmt.setInt(1, orderId);
+            itemStmt.setInt(2, line.quantity());
+            itemStmt.setInt(3, line.menuItemId());
+            itemStmt.addBatch();
+        }
+        int[] counts = itemStmt.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new SQLException("Menu item " + lines.get(i).menuItemId() + " does not exist.");
+            }
+        }
+
+        if (salesSummaryEnabled) {
+            SalesAnalytics.addOrderToDailySummary(pooled, orderId);
+        }
+        return orderId;
     }
 
-    // Update a record in a table
-    public boolean updateRecord(String tableName, String[] columns, String[] values, String whereClause) throws SQLException {
-        // Debugging output
-        System.out.println("Columns array length: " + columns.length);
-        System.out.println("Values array length: " + values.length);
+    // Price an order entirely in the database; null if the order does not exist
+    public Bill getBill(int orderId) throws SQLException {
+        return queryBill(BILL_BY_ORDER_SQL, orderId);
+    }
 
-        // Ensure columns and values arrays have the same length
-        if (columns.length != values.length) {
-            throw new IllegalArgumentException("Columns and values array must have the same length.");
+    // Ids of orders created in [from, to), or of every order when from is null
+    public int[] getOrderIds(Timestamp from, Timestamp to) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(from == null ? ORDER_IDS_SQL : ORDER_IDS_BETWEEN_SQL);
+                if (from != null) {
+                    stmt.setTimestamp(1, from);
+                    stmt.setTimestamp(2, to);
+                }
+                int[] ids = readIds(stmt);
+                success = true;
+                rowCount = ids.length;
+                return ids;
+            }
+        } finally {
+            Metrics.record("db.getOrderIds", start, rowCount, success);
         }
+    }
 
-        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
-        
-        // Append columns and placeholders to the SQL query
-        for (int i = 0; i < columns.length; i++) {
-            sql.append(columns[i]).append(" = ?, ");
+    // Ids of orders above afterId, in order
+    public int[] getOrderIdsAfter(int afterId) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        long rowCount = 0;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(ORDER_IDS_AFTER_SQL);
+                stmt.setInt(1, afterId);
+                int[] ids = readIds(stmt);
+                success = true;
+                rowCount = ids.length;
+                return ids;
+            }
+        } finally {
+            Metrics.record("db.getOrderIdsAfter", start, rowCount, success);
         }
-        
-        // Remove the trailing comma and space, then append WHERE clause
-        sql.delete(sql.length() - 2, sql.length()).append(" WHERE ").append(whereClause);
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
-            // Set the values for the placeholders in the PreparedStatement
-            for (int i = 0; i < values.length; i++) {
-                stmt.setString(i + 1, values[i]); // Set each value to the corresponding placeholder
+    }
+
+    // Highest order_id, or 0 if there are no orders
+    public int getMaxOrderId() throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(MAX_ORDER_ID_SQL);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
             }
+        }
+    }
 
-            // Execute the update and return true if at least one row was updated
-            return stmt.executeUpdate() > 0;
+    private static int[] readIds(PreparedStatement stmt) throws SQLException {
+        int[] ids = new int[64];
+        int count = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getInt(1);
+            }
         }
+        return Arrays.copyOf(ids, count);
     }
 
+    // The bill for a customer's most recent order; null if they have none
+    public Bill getLatestBill(int customerId) throws SQLException {
+        return queryBill(BILL_LATEST_FOR_CUSTOMER_SQL, customerId);
+    }
 
-    // Delete a record from a table
-    public boolean deleteRecord(String tableName, String whereClause) throws SQLException {
-        String sql = "DELETE FROM " + tableName + " WHERE " + whereClause;
-        try (Statement stmt = connection.createStatement()) {
-            return stmt.executeUpdate(sql) > 0;
+    private Bill queryBill(String sql, int id) throws SQLException {
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            try (PooledConnection pooled = pool.borrow()) {
+                PreparedStatement stmt = pooled.statements().prepare(sql);
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        success = true;
+                        return null;
+                    }
+                    int orderId = rs.getInt("order_id");
+                    String customerName = rs.getString("customer_name");
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    long totalMinor = Money.toMinor(rs.getBigDecimal("grand_total"));
+                    List<Bill.Line> lines = new ArrayList<>();
+                    do {
+                        lines.add(new Bill.Line(
+                                rs.getInt("menu_item_id"),
+                                rs.getString("item_name"),
+                                rs.getInt("quantity"),
+                                Money.toMinor(rs.getBigDecimal("unit_price")),
+                                Money.toMinor(rs.getBigDecimal("line_total"))));
+                    } while (rs.next());
+                    success = true;
+                    return new Bill(orderId, customerName, createdAt, lines, totalMinor);
+                }
+            }
+        } finally {
+            Metrics.record("db.getBill", start, 0, success);
         }
     }
 }
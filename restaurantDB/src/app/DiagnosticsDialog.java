@@ -0,0 +1,73 @@
+package app;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+// Live view of Metrics, connection pool and menu cache statistics, refreshed every second
+public class DiagnosticsDialog extends JDialog {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConnectionPool pool;
+    private final transient MenuCache menuCache;
+    private final DefaultTableModel operationsModel = new DefaultTableModel(
+            new String[]{"Operation", "Count", "Errors", "Rows", "Mean (us)", "p50 (us)", "p99 (us)", "Max (us)"}, 0);
+    private final JLabel poolLabel = new JLabel();
+    private final JLabel cacheLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(1_000, e -> refresh());
+
+    public DiagnosticsDialog(Frame owner, ConnectionPool pool, MenuCache menuCache) {
+        super(owner, "Diagnostics", false);
+        this.pool = pool;
+        this.menuCache = menuCache;
+        setSize(800, 400);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(owner);
+
+        JCheckBox enabledBox = new JCheckBox("Collect metrics", Metrics.isEnabled());
+        enabledBox.addActionListener(e -> Metrics.setEnabled(enabledBox.isSelected()));
+        JButton btnReset = new JButton("Reset");
+        btnReset.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+
+        JPanel topPanel = new JPanel(new GridLayout(2, 1));
+        topPanel.add(poolLabel);
+        topPanel.add(cacheLabel);
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(enabledBox);
+        buttonPanel.add(btnReset);
+
+        JTable table = new JTable(operationsModel);
+        table.setEnabled(false);
+        setLayout(new BorderLayout());
+        add(topPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        refresh();
+        refreshTimer.start();
+    }
+
+    private void refresh() {
+        operationsModel.setRowCount(0);
+        for (Metrics.Snapshot op : Metrics.snapshot()) {
+            operationsModel.addRow(new Object[]{op.name(), op.count(), op.errors(), op.rows(),
+                    String.format("%.1f", op.meanMicros()), op.p50Micros(), op.p99Micros(), op.maxMicros()});
+        }
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        poolLabel.setText(String.format(
+                "Pool: %d active, %d idle, %d waiting (max %d) | borrows %d, avg wait %d us, max wait %d us, timeouts %d, leaks %d",
+                stats.active(), stats.idle(), stats.waiting(), stats.maxSize(), stats.borrows(),
+                stats.avgWaitMicros(), stats.maxWaitMicros(), stats.timeouts(), stats.leaks()));
+        cacheLabel.setText("Menu cache: " + menuCache.getHits() + " hits, " + menuCache.getMisses() + " misses");
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+}
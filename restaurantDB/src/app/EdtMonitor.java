@@ -0,0 +1,27 @@
+package app;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+// Times every event dispatched on the Swing Event Dispatch Thread, recording it as
+// "edt.dispatch" so the diagnostics show how long the UI was blocked. Installed only when
+// metrics are enabled at startup.
+final class EdtMonitor extends EventQueue {
+    private EdtMonitor() {
+    }
+
+    static void install() {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new EdtMonitor());
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = Metrics.start();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            Metrics.record("edt.dispatch", start, 0, true);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package app;
+
+import java.sql.SQLException;
+
+// In-process H2 database stored in a local file, for single-till kiosks, tests and benchmarks.
+// No server and no network hop; the tables are created from schema.sql on the first start.
+// Requires the H2 driver jar on the class or module path.
+public class EmbeddedBackend implements StorageBackend {
+    private static final String DEFAULT_URL =
+            "jdbc:h2:./data/myrestaurant;MODE=MySQL;DATABASE_TO_LOWER=TRUE;AUTO_SERVER=FALSE";
+
+    @Override
+    public String name() {
+        return "embedded";
+    }
+
+    @Override
+    public String defaultUrl() {
+        return DEFAULT_URL;
+    }
+
+    @Override
+    public void initialize(DatabaseManager databaseManager) throws SQLException {
+        databaseManager.applySchemaIfMissing();
+    }
+
+    @Override
+    public boolean isInProcess() {
+        return true;
+    }
+}
@@ -0,0 +1,267 @@
+package app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// End-of-day batch: a CSV report of every table and a struk for every order of the day,
+// generated in parallel on a ForkJoinPool. Bills are split into ranges that workers fork and
+// steal; each database call borrows its own pooled connection, so give the pool at least as
+// many connections as workers. Everything goes into one directory:
+//
+//   tables/<table>.csv         streamed through ReportExporter
+//   bills/bill-<order_id>.txt  one channel write per bill
+//   index.csv                  type, name, file, rows (or order total) and bytes of each file
+//
+// Headless: java -cp ... app.EndOfDayExport <output-dir> [--date yyyy-mm-dd | --all] [--threads n]
+public class EndOfDayExport {
+    private static final int BILLS_PER_TASK = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Tables in the report set, with the columns exported for each
+    private static final Map<String, String[]> TABLES = new LinkedHashMap<>();
+
+    static {
+        for (String table : TableMeta.tableNames()) {
+            TABLES.put(table, TableMeta.forName(table).columnNames());
+        }
+        TABLES.put("orders", new String[]{"order_id", "customer_id", "created_at"});
+        TABLES.put("order_items", new String[]{"order_id", "menu_item_id", "quantity", "unit_price"});
+    }
+
+    public record Result(Path directory, int tables, int bills, long tableRows, long bytes, long wallNanos) {
+        public double itemsPerSecond() {
+            return wallNanos == 0 ? 0 : (tables + bills) / (wallNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d tables (%d rows) and %d bills, %d KB in %.2f s (%.1f items/s) -> %s",
+                    tables, tableRows, bills, bytes / 1024, wallNanos / 1e9, itemsPerSecond(), directory);
+        }
+    }
+
+    private record IndexEntry(String type, String name, String file, long items, long bytes) {
+    }
+
+    private final DatabaseManager databaseManager;
+    private final int parallelism;
+
+    public EndOfDayExport(DatabaseManager databaseManager, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.databaseManager = databaseManager;
+        this.parallelism = parallelism;
+    }
+
+    // Export the given day's orders (every order when day is null) and all tables into directory
+    public Result run(Path directory, LocalDate day) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory.resolve("tables"));
+        Files.createDirectories(directory.resolve("bills"));
+        int[] orderIds = day == null
+                ? databaseManager.getOrderIds(null, null)
+                : databaseManager.getOrderIds(Timestamp.valueOf(day.atStartOfDay()),
+                        Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+
+        ConcurrentLinkedQueue<IndexEntry> index = new ConcurrentLinkedQueue<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Map.Entry<String, String[]> table : TABLES.entrySet()) {
+            tasks.add(ForkJoinTask.adapt(() -> exportTable(directory, table.getKey(), table.getValue(), index)));
+        }
+        tasks.add(new BillRange(directory, orderIds, 0, orderIds.length, index));
+
+        ForkJoinPool workers = new ForkJoinPool(parallelism);
+        try {
+            workers.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("End-of-day export interrupted.", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        List<IndexEntry> entries = new ArrayList<>(index);
+        entries.sort(Comparator.comparing(IndexEntry::type).reversed().thenComparing(IndexEntry::file));
+        writeIndex(directory.resolve("index.csv"), entries);
+
+        long tableRows = 0;
+        long bytes = 0;
+        for (IndexEntry entry : entries) {
+            bytes += entry.bytes();
+            if (entry.type().equals("table")) {
+                tableRows += entry.items();
+            }
+        }
+        return new Result(directory, TABLES.size(), orderIds.length, tableRows, bytes, System.nanoTime() - start);
+    }
+
+    private void exportTable(Path directory, String table, String[] columns, ConcurrentLinkedQueue<IndexEntry> index) {
+        Path file = directory.resolve("tables").resolve(table + ".csv");
+        try {
+            long rows = new ReportExporter(databaseManager).exportTable(table, columns, file, count -> { });
+            index.add(new IndexEntry("table", table, "tables/" + file.getFileName(), rows, Files.size(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new ExportFailure(e);
+        }
+    }
+
+    // Splits the order ids in half until a range is small enough to render directly
+    private final class BillRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+        private final int[] orderIds;
+        private final int from;
+        private final int to;
+        private final transient ConcurrentLinkedQueue<IndexEntry> index;
+
+        BillRange(Path directory, int[] orderIds, int from, int to, ConcurrentLinkedQueue<IndexEntry> index) {
+            this.directory = directory;
+            this.orderIds = orderIds;
+            this.from = from;
+            this.to = to;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BILLS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BillRange(directory, orderIds, from, mid, index),
+                        new BillRange(directory, orderIds, mid, to, index));
+                return;
+            }
+            try {
+                for (int i = from; i < to; i++) {
+                    writeBill(directory, orderIds[i], index);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new ExportFailure(e);
+            }
+        }
+    }
+
+    private void writeBill(Path directory, int orderId, ConcurrentLinkedQueue<IndexEntry> index)
+            throws IOException, SQLException {
+        Bill bill = databaseManager.getBill(orderId);
+        if (bill == null) {
+            return; // Order without lines
+        }
+        String name = "bill-" + orderId + ".txt";
+        ByteBuffer bytes = ByteBuffer.wrap(BillFormatter.format(bill).getBytes(StandardCharsets.UTF_8));
+        int size = bytes.remaining();
+        try (FileChannel channel = FileChannel.open(directory.resolve("bills").resolve(name),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        index.add(new IndexEntry("bill", bill.customerName(), "bills/" + name, bill.totalMinor(), size));
+    }
+
+    private static void writeIndex(Path file, List<IndexEntry> entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+             CsvWriter csv = new CsvWriter(writer)) {
+            csv.writeRecord(new String[]{"type", "name", "file", "rows_or_total", "bytes"});
+            for (IndexEntry entry : entries) {
+                String items = entry.type().equals("bill") ? Money.format(entry.items()) : String.valueOf(entry.items());
+                csv.writeRecord(new String[]{entry.type(), entry.name(), entry.file(), items, String.valueOf(entry.bytes())});
+            }
+        }
+    }
+
+    private static IOException unwrap(Throwable cause) throws SQLException {
+        if (cause instanceof ExportFailure failure) {
+            throw failure.getCause();
+        }
+        if (cause instanceof UncheckedIOException io) {
+            return io.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    // Carries a SQLException out of a ForkJoinTask
+    private static final class ExportFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExportFailure(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: EndOfDayExport <output-dir> [--date yyyy-mm-dd | --all] [--threads n]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        LocalDate day = LocalDate.now();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--all" -> day = null;
+                case "--date" -> day = LocalDate.parse(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            // A pool of its own, one connection per worker
+            DatabaseConfig loaded = DatabaseConfig.load();
+            DatabaseConfig config = new DatabaseConfig(loaded.backend(), loaded.url(), loaded.user(),
+                    loaded.password(), threads);
+            StorageBackend backend = StorageBackend.forName(config.backend());
+            try (ConnectionPool pool = backend.openPool(config)) {
+                DatabaseManager databaseManager = new DatabaseManager(pool);
+                backend.initialize(databaseManager);
+                Result result = new EndOfDayExport(databaseManager, threads).run(directory, day);
+                System.out.println(result);
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("End-of-day export failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
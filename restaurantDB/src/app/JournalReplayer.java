@@ -0,0 +1,91 @@
+package app;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// Background thread that drains an OrderJournal into the database in batches.
+// A batch that fails on the database (typically because it is unreachable) is retried with
+// growing back-off until it goes through; orders keep landing in the journal meanwhile.
+// DatabaseManager.applyJournaledOrders skips orders it has already seen, so a batch applied
+// just before a crash or a lost commit acknowledgement is not written twice.
+public class JournalReplayer implements AutoCloseable {
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long IDLE_WAIT_MILLIS = 500;
+    private static final long MIN_BACKOFF_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    private final OrderJournal journal;
+    private final DatabaseManager databaseManager;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile SQLException lastFailure;
+
+    public JournalReplayer(OrderJournal journal, DatabaseManager databaseManager) {
+        this(journal, databaseManager, DEFAULT_BATCH_SIZE);
+    }
+
+    public JournalReplayer(OrderJournal journal, DatabaseManager databaseManager, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.journal = journal;
+        this.databaseManager = databaseManager;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, "order-journal-replayer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                List<OrderJournal.Entry> batch = journal.nextBatch(batchSize, IDLE_WAIT_MILLIS);
+                if (!batch.isEmpty()) {
+                    apply(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closing; whatever is left is replayed on the next start
+        }
+    }
+
+    private void apply(List<OrderJournal.Entry> batch) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                BulkImportResult result = databaseManager.applyJournaledOrders(journal.getJournalId(), batch);
+                for (BulkImportResult.RowError error : result.errors()) {
+                    System.err.println("Journaled order " + error.rowNumber() + " rejected by the database: "
+                            + error.message());
+                }
+                journal.acknowledge(batch.get(batch.size() - 1).seq());
+                lastFailure = null;
+                return;
+            } catch (SQLException e) {
+                if (lastFailure == null) {
+                    System.err.println("Order journal replay paused, database unavailable: " + e.getMessage());
+                }
+                lastFailure = e;
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    // The error that is holding replay up, or null while the database is keeping up
+    public SQLException getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
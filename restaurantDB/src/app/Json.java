@@ -0,0 +1,305 @@
+package app;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough JSON for the order API: a parser for request bodies and a streaming writer for
+// responses. Parsed objects are Map<String, Object>, arrays List<Object>, numbers Long or
+// Double, plus String, Boolean and null. Nesting is limited to MAX_DEPTH so a hostile body
+// is rejected instead of overflowing the stack.
+public final class Json {
+    private static final int MAX_DEPTH = 32;
+
+    private Json() {
+    }
+
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos < text.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+        private int depth;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (++depth > MAX_DEPTH) {
+                        throw error("Nested deeper than " + MAX_DEPTH + " levels");
+                    }
+                    Object nested = c == '{' ? object() : array();
+                    depth--;
+                    return nested;
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return number();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected a field name");
+                }
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                object.put(name, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> array = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return array;
+                }
+            }
+        }
+
+        private String string() {
+            StringBuilder out = new StringBuilder();
+            pos++;
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> out.append('\n');
+                    case 't' -> out.append('\t');
+                    case 'r' -> out.append('\r');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> out.append(escaped); // \" \\ \/
+                }
+            }
+        }
+
+        private Object number() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String number = text.substring(start, pos);
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("Bad number '" + number + "'");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, pos)) {
+                throw error("Unexpected token");
+            }
+            pos += word.length();
+            return value;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + pos + " of the JSON body.");
+        }
+    }
+
+    // Streams JSON to a Writer; commas between values are inserted automatically
+    public static final class Writer {
+        private final java.io.Writer out;
+        private boolean needsComma;
+
+        public Writer(java.io.Writer out) {
+            this.out = out;
+        }
+
+        public Writer beginObject() throws IOException {
+            comma();
+            out.write('{');
+            needsComma = false;
+            return this;
+        }
+
+        public Writer endObject() throws IOException {
+            out.write('}');
+            needsComma = true;
+            return this;
+        }
+
+        public Writer beginArray() throws IOException {
+            comma();
+            out.write('[');
+            needsComma = false;
+            return this;
+        }
+
+        public Writer endArray() throws IOException {
+            out.write(']');
+            needsComma = true;
+            return this;
+        }
+
+        public Writer name(String name) throws IOException {
+            comma();
+            quote(name);
+            out.write(':');
+            needsComma = false;
+            return this;
+        }
+
+        public Writer value(String value) throws IOException {
+            comma();
+            if (value == null) {
+                out.write("null");
+            } else {
+                quote(value);
+            }
+            needsComma = true;
+            return this;
+        }
+
+        public Writer value(long value) throws IOException {
+            comma();
+            out.write(Long.toString(value));
+            needsComma = true;
+            return this;
+        }
+
+        // Minor units as a decimal amount, e.g. 2500050 -> 25000.50
+        public Writer money(long minor) throws IOException {
+            comma();
+            out.write(Money.format(minor));
+            needsComma = true;
+            return this;
+        }
+
+        private void comma() throws IOException {
+            if (needsComma) {
+                out.write(',');
+            }
+        }
+
+        private void quote(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                    }
+                }
+            }
+            out.write('"');
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package app;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Puts every new order on the KitchenQueue. Subscribe it to a ChangeFeed so orders from other
+// terminals arrive too. An insert on 'orders' only carries the order_id, so the lines are read
+// with getBill on a thread of the feed's own, never on the thread that placed the order.
+// A failed read is retried with backoff, so an order is not lost to a brief outage.
+// ChangeFeed misses a log row that commits after a later one was polled, so the feed also polls
+// orders above a high-water order_id every pollMillis. An id is only settled once a second poll
+// has passed it, which covers an order committed late within one poll interval. Orders already
+// offered are remembered by id, so an order heard both ways reaches the queue once.
+public class KitchenFeed implements TableChangeListener, AutoCloseable {
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long FIRST_RETRY_MILLIS = 500;
+
+    private final DatabaseManager databaseManager;
+    private final KitchenQueue queue;
+    private final ScheduledExecutorService loader;
+    // Only touched on the loader thread
+    private final Set<Integer> offered = new HashSet<>();
+    // Every order up to settledId has been offered; -1 until the first poll
+    private int settledId = -1;
+    // Highest order_id seen so far, settled after the next poll
+    private int seenId;
+
+    public KitchenFeed(DatabaseManager databaseManager, KitchenQueue queue, long pollMillis) {
+        this.databaseManager = databaseManager;
+        this.queue = queue;
+        this.loader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kitchen-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::catchUp);
+        loader.scheduleWithFixedDelay(this::catchUp, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void tableChanged(TableChange change) {
+        Integer orderId = change.intKey();
+        if (change.type() != TableChange.Type.INSERT || !"orders".equals(change.tableName()) || orderId == null) {
+            return;
+        }
+        try {
+            loader.execute(() -> load(orderId, 1));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    // Offer orders the change feed missed; the first run only records where to start
+    private void catchUp() {
+        try {
+            if (settledId < 0) {
+                seenId = databaseManager.getMaxOrderId();
+                settledId = seenId;
+                return;
+            }
+            int[] ids = databaseManager.getOrderIdsAfter(settledId);
+            for (int orderId : ids) {
+                load(orderId, 1);
+            }
+            int previousSettled = settledId;
+            settledId = seenId;
+            if (ids.length > 0) {
+                seenId = Math.max(seenId, ids[ids.length - 1]);
+            }
+            offered.removeIf(orderId -> orderId <= previousSettled);
+        } catch (SQLException e) {
+            // Tried again at the next poll
+        }
+    }
+
+    private void load(int orderId, int attempt) {
+        if (offered.contains(orderId)) {
+            return;
+        }
+        try {
+            Bill bill = databaseManager.getBill(orderId);
+            if (bill == null) {
+                return; // Deleted before the kitchen saw it
+            }
+            List<KitchenQueue.Line> lines = new ArrayList<>(bill.lines().size());
+            for (Bill.Line line : bill.lines()) {
+                lines.add(new KitchenQueue.Line(line.menuItemId(), line.itemName(), line.quantity()));
+            }
+            offered.add(orderId);
+            queue.offer(orderId, bill.customerName(), lines);
+        } catch (SQLException e) {
+            if (attempt >= MAX_ATTEMPTS) {
+                System.err.println("Order " + orderId + " did not reach the kitchen queue: " + e.getMessage());
+                return;
+            }
+            try {
+                loader.schedule(() -> load(orderId, attempt + 1),
+                        FIRST_RETRY_MILLIS << (attempt - 1), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException closed) {
+                // Shutting down
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        loader.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package app;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Expected preparation time of each menu item, which KitchenQueue uses to fire slow dishes early.
+// The menu table has no prep time, so estimates start from an optional properties file
+// (menu_item_id=seconds) or the default. After that they follow what the kitchen actually takes:
+// every completed ticket moves the estimate of its slowest item a fifth of the way to the
+// measured time.
+public final class KitchenPrepTimes {
+    private static final double LEARNING_RATE = 0.2;
+
+    private final long defaultMillis;
+    private final Map<Integer, Long> estimates = new ConcurrentHashMap<>();
+
+    public KitchenPrepTimes(long defaultMillis) {
+        this.defaultMillis = defaultMillis;
+    }
+
+    // Throws IllegalArgumentException naming the first entry that is not "menu_item_id=seconds"
+    public static KitchenPrepTimes load(Path file, long defaultMillis) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        KitchenPrepTimes prepTimes = new KitchenPrepTimes(defaultMillis);
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                prepTimes.set(Integer.parseInt(key.trim()),
+                        Math.round(Double.parseDouble(properties.getProperty(key).trim()) * 1_000));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad prep time '" + key + "=" + properties.getProperty(key)
+                        + "' in " + file + "; expected menu_item_id=seconds.");
+            }
+        }
+        return prepTimes;
+    }
+
+    public void set(int menuItemId, long millis) {
+        estimates.put(menuItemId, millis);
+    }
+
+    public long estimate(int menuItemId) {
+        return estimates.getOrDefault(menuItemId, defaultMillis);
+    }
+
+    // Lines are cooked side by side, so a ticket takes as long as its slowest item
+    public long estimate(List<KitchenQueue.Line> lines) {
+        long slowest = 0;
+        for (KitchenQueue.Line line : lines) {
+            slowest = Math.max(slowest, estimate(line.menuItemId()));
+        }
+        return slowest;
+    }
+
+    // The item that sets the ticket's estimate, or -1 for an empty ticket
+    public int slowestItem(List<KitchenQueue.Line> lines) {
+        int slowest = -1;
+        long slowestMillis = -1;
+        for (KitchenQueue.Line line : lines) {
+            long millis = estimate(line.menuItemId());
+            if (millis > slowestMillis) {
+                slowest = line.menuItemId();
+                slowestMillis = millis;
+            }
+        }
+        return slowest;
+    }
+
+    public void learn(int menuItemId, long measuredMillis) {
+        estimates.compute(menuItemId, (id, current) -> {
+            long base = current == null ? defaultMillis : current;
+            return base + Math.round((measuredMillis - base) * LEARNING_RATE);
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Orders waiting for the kitchen, in the order they should be started.
+//
+// Every ticket is promised within the target time of being placed. With the PRIORITY policy
+// a ticket must be started by placedAt + target - prepEstimate, and the queue hands out the
+// earliest of those first. Slow dishes therefore start ahead of quick ones placed a little
+// earlier. A ticket can only be overtaken by one placed less than the prep difference after it,
+// so old tickets never starve. FIFO starts tickets strictly in the order they were placed.
+//
+// The waiting set is a lock-free skip list ordered by start-by time; producers (KitchenFeed)
+// and cooks never block each other. The semaphore only parks cooks waiting in take(): every
+// offered ticket adds a permit, and a ticket is only polled after taking one.
+//
+// Times come from the clock, in milliseconds, so simulations can run on a virtual clock.
+public final class KitchenQueue {
+    public enum Policy {
+        PRIORITY, FIFO
+    }
+
+    public record Line(int menuItemId, String itemName, int quantity) {
+    }
+
+    public record Ticket(long seq, int orderId, String customerName, List<Line> lines,
+                         long placedAtMillis, long prepEstimateMillis, long startByMillis) {
+    }
+
+    // A ticket a cook has started
+    public record Started(Ticket ticket, long startedAtMillis) {
+    }
+
+    private static final Comparator<Ticket> START_ORDER =
+            Comparator.comparingLong(Ticket::startByMillis).thenComparingLong(Ticket::seq);
+
+    private final KitchenPrepTimes prepTimes;
+    private final KitchenStats stats = new KitchenStats();
+    private final Policy policy;
+    private final long targetMillis;
+    private final LongSupplier clock;
+    private final ConcurrentSkipListSet<Ticket> waiting = new ConcurrentSkipListSet<>(START_ORDER);
+    private final Map<Long, Started> inProgress = new ConcurrentHashMap<>();
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicLong sequence = new AtomicLong();
+
+    public KitchenQueue(KitchenPrepTimes prepTimes, long targetMillis) {
+        this(prepTimes, targetMillis, Policy.PRIORITY, System::currentTimeMillis);
+    }
+
+    public KitchenQueue(KitchenPrepTimes prepTimes, long targetMillis, Policy policy, LongSupplier clock) {
+        this.prepTimes = prepTimes;
+        this.targetMillis = targetMillis;
+        this.policy = policy;
+        this.clock = clock;
+    }
+
+    public Ticket offer(int orderId, String customerName, List<Line> lines) {
+        long placedAt = clock.getAsLong();
+        long prepEstimate = prepTimes.estimate(lines);
+        long startBy = policy == Policy.PRIORITY ? placedAt + targetMillis - prepEstimate : placedAt;
+        Ticket ticket = new Ticket(sequence.incrementAndGet(), orderId, customerName, List.copyOf(lines),
+                placedAt, prepEstimate, startBy);
+        waiting.add(ticket);
+        available.release();
+        return ticket;
+    }
+
+    // Start the most urgent ticket, or null if none is waiting
+    public Started poll() {
+        return available.tryAcquire() ? start() : null;
+    }
+
+    // Start the most urgent ticket, waiting up to the timeout for one; null on timeout
+    public Started take(long timeout, TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? start() : null;
+    }
+
+    private Started start() {
+        Ticket ticket = waiting.pollFirst(); // Never null: each permit stands for one waiting ticket
+        Started started = new Started(ticket, clock.getAsLong());
+        inProgress.put(ticket.seq(), started);
+        return started;
+    }
+
+    // Bump a started ticket; false if it is not in progress (already bumped elsewhere)
+    public boolean complete(long seq) {
+        Started started = inProgress.remove(seq);
+        if (started == null) {
+            return false;
+        }
+        Ticket ticket = started.ticket();
+        long doneAt = clock.getAsLong();
+        long prepMillis = doneAt - started.startedAtMillis();
+        stats.record(ticket, started.startedAtMillis() - ticket.placedAtMillis(), prepMillis,
+                doneAt > ticket.placedAtMillis() + targetMillis, doneAt);
+        int slowest = prepTimes.slowestItem(ticket.lines());
+        if (slowest >= 0) {
+            prepTimes.learn(slowest, prepMillis);
+        }
+        return true;
+    }
+
+    // Waiting tickets, most urgent first
+    public List<Ticket> waiting() {
+        return new ArrayList<>(waiting);
+    }
+
+    // Started tickets, oldest start first
+    public List<Started> inProgress() {
+        List<Started> started = new ArrayList<>(inProgress.values());
+        started.sort(Comparator.comparingLong(Started::startedAtMillis));
+        return started;
+    }
+
+    public int waitingCount() {
+        return available.availablePermits();
+    }
+
+    public KitchenStats getStats() {
+        return stats;
+    }
+
+    public long getTargetMillis() {
+        return targetMillis;
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+}
@@ -0,0 +1,107 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Kitchen throughput for KitchenView: preparation time per menu item and tickets completed per
+// hour. Counters are lock-free so cooks bumping tickets never wait on each other.
+//
+// Orders per hour is a sliding window of one-minute buckets. When a bucket rolls over to a new
+// minute, a completion recorded at that same moment can be lost, so the figure is approximate.
+public final class KitchenStats {
+    private static final int WINDOW_MINUTES = 60;
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private final Map<Integer, Item> items = new ConcurrentHashMap<>();
+    private final AtomicLongArray bucketMinutes = new AtomicLongArray(WINDOW_MINUTES);
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(WINDOW_MINUTES);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+
+    // Per-item totals; prep time is how long the ticket holding the item took once started
+    private static final class Item {
+        final String name;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final AtomicLong maxMillis = new AtomicLong();
+
+        Item(String name) {
+            this.name = name;
+        }
+    }
+
+    public record ItemSnapshot(int menuItemId, String name, long count, long meanMillis, long maxMillis) {
+    }
+
+    // waitMillis: placed to started; prepMillis: started to done
+    void record(KitchenQueue.Ticket ticket, long waitMillis, long prepMillis, boolean wasLate, long doneAtMillis) {
+        for (KitchenQueue.Line line : ticket.lines()) {
+            Item item = items.computeIfAbsent(line.menuItemId(), id -> new Item(line.itemName()));
+            item.count.add(line.quantity());
+            item.totalMillis.add(prepMillis * line.quantity());
+            item.maxMillis.accumulateAndGet(prepMillis, Math::max);
+        }
+        completed.increment();
+        totalWaitMillis.add(waitMillis);
+        if (wasLate) {
+            late.increment();
+        }
+
+        long minute = doneAtMillis / MINUTE_MILLIS;
+        int bucket = (int) (minute % WINDOW_MINUTES);
+        long bucketMinute = bucketMinutes.get(bucket);
+        if (bucketMinute != minute && bucketMinutes.compareAndSet(bucket, bucketMinute, minute)) {
+            bucketCounts.set(bucket, 0);
+        }
+        bucketCounts.incrementAndGet(bucket);
+
+        Metrics.recordNanos("kitchen.wait", waitMillis * 1_000_000);
+        Metrics.recordNanos("kitchen.prep", prepMillis * 1_000_000);
+    }
+
+    // Tickets completed in the hour up to nowMillis
+    public long ordersPerHour(long nowMillis) {
+        long minute = nowMillis / MINUTE_MILLIS;
+        long count = 0;
+        for (int i = 0; i < WINDOW_MINUTES; i++) {
+            long age = minute - bucketMinutes.get(i);
+            if (age >= 0 && age < WINDOW_MINUTES) {
+                count += bucketCounts.get(i);
+            }
+        }
+        return count;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    // Tickets finished after their promised time
+    public long getLate() {
+        return late.sum();
+    }
+
+    public long getMeanWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : totalWaitMillis.sum() / count;
+    }
+
+    // Slowest items first
+    public List<ItemSnapshot> items() {
+        List<ItemSnapshot> snapshot = new ArrayList<>(items.size());
+        items.forEach((id, item) -> {
+            long count = item.count.sum();
+            snapshot.add(new ItemSnapshot(id, item.name, count,
+                    count == 0 ? 0 : item.totalMillis.sum() / count, item.maxMillis.get()));
+        });
+        snapshot.sort(Comparator.comparingLong(ItemSnapshot::meanMillis).reversed());
+        return snapshot;
+    }
+}
@@ -0,0 +1,143 @@
+package app;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+// Kitchen display: waiting tickets in the order KitchenQueue wants them started, the tickets
+// being cooked, and per-item prep times. "Start Next" takes the most urgent ticket; "Done"
+// bumps the selected one. A window of its own so it can sit on the kitchen's screen.
+// Refreshed every second from the queue; nothing here touches the database.
+public class KitchenView extends JFrame {
+    private static final long serialVersionUID = 1L;
+
+    private final transient KitchenQueue queue;
+    private final DefaultTableModel waitingModel =
+            readOnlyModel("Order", "Customer", "Items", "Waiting (min)", "Prep est. (min)", "Start by");
+    private final DefaultTableModel cookingModel =
+            readOnlyModel("Order", "Customer", "Items", "Cooking (min)", "Due in (min)");
+    private final DefaultTableModel itemsModel =
+            readOnlyModel("Menu ID", "Item", "Prepared", "Mean (min)", "Max (min)");
+    private final JTable cookingTable = new JTable(cookingModel);
+    private final JLabel summaryLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(1_000, e -> refresh());
+    private transient List<KitchenQueue.Started> cooking = List.of();
+
+    public KitchenView(KitchenQueue queue) {
+        super("Kitchen");
+        this.queue = queue;
+        setSize(900, 600);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        JButton btnStart = new JButton("Start Next");
+        btnStart.addActionListener(e -> {
+            queue.poll();
+            refresh();
+        });
+        JButton btnDone = new JButton("Done");
+        btnDone.addActionListener(e -> {
+            int row = cookingTable.getSelectedRow();
+            if (row >= 0 && row < cooking.size()) {
+                queue.complete(cooking.get(row).ticket().seq());
+                refresh();
+            }
+        });
+        cookingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JPanel queuesPanel = new JPanel(new GridLayout(2, 1));
+        queuesPanel.add(titled("Waiting", new JScrollPane(new JTable(waitingModel))));
+        queuesPanel.add(titled("Cooking", new JScrollPane(cookingTable)));
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Tickets", queuesPanel);
+        tabs.addTab("Prep Times", new JScrollPane(new JTable(itemsModel)));
+
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(btnStart);
+        buttonPanel.add(btnDone);
+        setLayout(new BorderLayout());
+        add(summaryLabel, BorderLayout.NORTH);
+        add(tabs, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        refresh();
+        refreshTimer.start();
+    }
+
+    private static JComponent titled(String title, JComponent component) {
+        component.setBorder(BorderFactory.createTitledBorder(title));
+        return component;
+    }
+
+    private static DefaultTableModel readOnlyModel(String... columns) {
+        return new DefaultTableModel(columns, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private void refresh() {
+        long now = queue.now();
+
+        waitingModel.setRowCount(0);
+        for (KitchenQueue.Ticket ticket : queue.waiting()) {
+            long startIn = minutes(ticket.startByMillis() - now);
+            waitingModel.addRow(new Object[]{ticket.orderId(), ticket.customerName(), items(ticket),
+                    minutes(now - ticket.placedAtMillis()), minutes(ticket.prepEstimateMillis()),
+                    startIn >= 0 ? "in " + startIn + " min" : "LATE"});
+        }
+
+        // Keep the cook's selection across refreshes
+        int selected = cookingTable.getSelectedRow();
+        long selectedSeq = selected >= 0 && selected < cooking.size() ? cooking.get(selected).ticket().seq() : -1;
+        cooking = queue.inProgress();
+        cookingModel.setRowCount(0);
+        for (int i = 0; i < cooking.size(); i++) {
+            KitchenQueue.Started started = cooking.get(i);
+            KitchenQueue.Ticket ticket = started.ticket();
+            cookingModel.addRow(new Object[]{ticket.orderId(), ticket.customerName(), items(ticket),
+                    minutes(now - started.startedAtMillis()),
+                    minutes(ticket.placedAtMillis() + queue.getTargetMillis() - now)});
+            if (ticket.seq() == selectedSeq) {
+                cookingTable.setRowSelectionInterval(i, i);
+            }
+        }
+
+        KitchenStats stats = queue.getStats();
+        itemsModel.setRowCount(0);
+        for (KitchenStats.ItemSnapshot item : stats.items()) {
+            itemsModel.addRow(new Object[]{item.menuItemId(), item.name(), item.count(),
+                    minutes(item.meanMillis()), minutes(item.maxMillis())});
+        }
+
+        summaryLabel.setText(String.format(
+                " Waiting %d | cooking %d | done %d (%d late) | %d orders in the last hour | avg wait %.1f min",
+                queue.waitingCount(), cooking.size(), stats.getCompleted(), stats.getLate(),
+                stats.ordersPerHour(now), stats.getMeanWaitMillis() / 60_000.0));
+    }
+
+    private static String items(KitchenQueue.Ticket ticket) {
+        StringBuilder text = new StringBuilder();
+        for (KitchenQueue.Line line : ticket.lines()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(line.quantity()).append("x ").append(line.itemName());
+        }
+        return text.toString();
+    }
+
+    private static long minutes(long millis) {
+        return Math.floorDiv(millis, 60_000);
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+}
@@ -1,29 +1,42 @@
 package app;
 
 import javax.swing.*;
-import java.sql.Connection;
-import java.sql.SQLException;
+import java.awt.EventQueue;
 
 public class MainApp {
     public static void main(String[] args) {
-        try {
-            Connection connection = DatabaseConnection.getConnection();
-            DatabaseManager dbManager = new DatabaseManager(connection);
-            ManagementGUI gui = new ManagementGUI(dbManager);
+        StartupTrace.mark("main");
+        if (System.getProperty("restaurant.metrics.file") != null) {
+            Metrics.setEnabled(true);
+        }
+        if (Metrics.isEnabled()) {
+            EventQueue.invokeLater(EdtMonitor::install);
+        }
+
+        // Show the window straight away; it stays disabled until the database is ready
+        ManagementGUI gui = new ManagementGUI();
+        SwingUtilities.invokeLater(() -> {
             gui.initializeGUI();  // Call your method to initialize the GUI (set up tables, etc.)
             gui.setVisible(true);  // Now you can set it visible
+            StartupTrace.mark("frameShown");
+        });
+
+        try {
+            // Connect, apply the schema and start background services on this thread, not the EDT
+            AppServices services = AppServices.start();
+
+            // Add a shutdown hook to close the pooled connections on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(services::close));
+            StartupTrace.mark("servicesReady");
 
-            // Add a shutdown hook to close the connection on exit
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                try {
-                    DatabaseConnection.closeConnection();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }));
+            SwingUtilities.invokeLater(() -> gui.attach(services));
+            services.warmUp();
         } catch (Exception ex) {
             ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Failed to start application: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(gui, "Failed to start application: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            });
         }
     }
 }
@@ -2,26 +2,36 @@
 package app;
 
 import javax.swing.*;   
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 
 public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
     private static final long serialVersionUID = 1L;
-    private final DatabaseManager databaseManager;
-    private final String[] tableNames = {"customers", "employees", "menu"};
+    // Set by attach() once the database is ready; until then the window shows but stays disabled
+    private AsyncDatabaseService databaseService;
+    private MenuCache menuCache;
+    private ChangeFeed changeFeed;
+    private OrderJournal orderJournal; // New orders go here first when set, see JournalReplayer
+    private KitchenQueue kitchenQueue; // Null unless the kitchen display is enabled
+    private final String[] tableNames = TableMeta.tableNames();
     private final JComboBox<String> tableSelector = new JComboBox<>(tableNames);
     private JTable table;
-    private DefaultTableModel tableModel;
+    private RowTableModel<?> tableModel;
+    private final JTextField searchField = new JTextField(15); // Filters the snapshot view as you type
     private JPanel inputPanel;  // Panel to hold dynamic input fields
     private JComponent[] inputFields;
     private JTextField nameField;  // Input field for customer name
     private JTextField orderField; // Input field for order menu
+    private ReceiptStore receiptStore; // Numbered struk files, see receiptStore()
+    private final JProgressBar activityBar = new JProgressBar(); // Shown while database work is pending
+    private final JPanel buttonPanel = new JPanel();
+    private boolean firstTableLoaded; // For StartupTrace
 
-    public ManagementGUI(DatabaseManager dbManager) {
-        this.databaseManager = dbManager;
+    public ManagementGUI() {
         setTitle("Restaurant Management");
         setSize(800, 600);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -35,13 +45,47 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
         JPanel topPanel = new JPanel();
         topPanel.add(new JLabel("Select Table:"));
         topPanel.add(tableSelector);
-        
+        topPanel.add(new JLabel("Search:"));
+        topPanel.add(searchField);
+        topPanel.add(activityBar);
+
+        // Progress indicator for background database work
+        activityBar.setIndeterminate(true);
+        activityBar.setStringPainted(true);
+        activityBar.setString("Connecting...");
 
-        // Center Panel for Table Display
-        tableModel = new DefaultTableModel();
-        table = new JTable(tableModel);
+        // Center Panel for Table Display; the model is set per table in loadTableData()
+        table = new JTable();
         JScrollPane scrollPane = new JScrollPane(table);
 
+        // Searching and header-click sorting run on the in-memory snapshot, without a query
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                applySearch();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                applySearch();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                applySearch();
+            }
+        });
+        table.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0 && tableModel instanceof SnapshotTableModel<?> snapshotModel) {
+                    snapshotModel.sortBy(table.convertColumnIndexToModel(column));
+                    table.getTableHeader().repaint();
+                }
+            }
+        });
+
         // Bottom Panel for CRUD Operations
         JPanel bottomPanel = new JPanel();
         bottomPanel.setLayout(new GridLayout(2, 1));
@@ -50,18 +94,25 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
         bottomPanel.add(inputPanel);  // Add to bottomPanel
 
         // Buttons Panel
-        JPanel buttonPanel = new JPanel();
         JButton btnAdd = new JButton("Add");
         JButton btnUpdate = new JButton("Update");
         JButton btnDelete = new JButton("Delete");
         JButton btnGenerateReport = new JButton("Generate Report");
         JButton btnGenerateBill = new JButton("Generate Bill");
+        JButton btnImportCsv = new JButton("Import CSV");
+        JButton btnAnalytics = new JButton("Analytics");
+        JButton btnDiagnostics = new JButton("Diagnostics");
+        JButton btnEndOfDay = new JButton("End of Day");
         
         buttonPanel.add(btnGenerateBill);
         buttonPanel.add(btnAdd);
         buttonPanel.add(btnUpdate);
         buttonPanel.add(btnDelete);
         buttonPanel.add(btnGenerateReport);
+        buttonPanel.add(btnImportCsv);
+        buttonPanel.add(btnAnalytics);
+        buttonPanel.add(btnDiagnostics);
+        buttonPanel.add(btnEndOfDay);
 
         btnGenerateReport.addActionListener(e -> generateReport());
         bottomPanel.add(buttonPanel);
@@ -81,25 +132,68 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
         btnUpdate.addActionListener(e -> updateRecord());
         btnDelete.addActionListener(e -> deleteRecord());
         btnGenerateBill.addActionListener(e -> generateBill());
+        btnImportCsv.addActionListener(e -> importCsv());
+        btnAnalytics.addActionListener(e -> showAnalytics());
+        btnDiagnostics.addActionListener(e -> showDiagnostics());
+        btnEndOfDay.addActionListener(e -> exportEndOfDay());
         
      // Table selection listener for populating input fields
         table.getSelectionModel().addListSelectionListener(event -> {
             if (!event.getValueIsAdjusting() && table.getSelectedRow() != -1) {
                 int selectedRow = table.getSelectedRow();
-                String customerName = (String) table.getValueAt(selectedRow, 1); // Column 1: customer_name
-                String orderMenu = (String) table.getValueAt(selectedRow, 2);   // Column 2: order_menu
-
-                // Populate input fields
-                nameField.setText(customerName);
-                orderField.setText(orderMenu);
+                // Populate input fields from the selected customer
+                if (tableModel.getRow(selectedRow) instanceof Customer customer) {
+                    nameField.setText(customer.name());
+                    orderField.setText(customer.orderMenu());
+                }
                 
 
             }
         });
         
-        // Initial Data Load
+        // Nothing to do until attach() brings the database
+        setControlsEnabled(false);
+    }
+
+    // Called on the EDT once AppServices has connected; enables the window and loads the selected table
+    public void attach(AppServices services) {
+        this.databaseService = services.getDatabaseService();
+        this.menuCache = services.getMenuCache();
+        this.changeFeed = services.getChangeFeed();
+        this.orderJournal = services.getOrderJournal();
+        this.kitchenQueue = services.getKitchenQueue();
+        if (kitchenQueue != null) {
+            JButton btnKitchen = new JButton("Kitchen");
+            btnKitchen.addActionListener(e -> new KitchenView(kitchenQueue).setVisible(true));
+            buttonPanel.add(btnKitchen);
+            buttonPanel.revalidate();
+        }
+
+        activityBar.setVisible(false);
+        databaseService.setActivityListener(pendingCount -> {
+            activityBar.setString(pendingCount + " pending");
+            activityBar.setVisible(pendingCount > 0);
+        });
+
+        // Apply row changes from this and other terminals to the visible table as they happen
+        changeFeed.subscribe(change -> SwingUtilities.invokeLater(() -> {
+            if (tableModel != null) {
+                tableModel.applyChange(change);
+            }
+        }));
+
+        setControlsEnabled(true);
+        // Initial Data Load; other tables load when first selected
         loadTableData();
     }
+
+    private void setControlsEnabled(boolean enabled) {
+        tableSelector.setEnabled(enabled);
+        searchField.setEnabled(enabled);
+        for (Component button : buttonPanel.getComponents()) {
+            button.setEnabled(enabled);
+        }
+    }
     
     private void initializeInputFields() {
         nameField = new JTextField(20);
@@ -113,47 +207,73 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
     }
 
     private void loadTableData() {
-        try {
-            String selectedTable = (String) tableSelector.getSelectedItem();
-            if (selectedTable == null) return;
+        String selectedTable = (String) tableSelector.getSelectedItem();
+        if (selectedTable == null || databaseService == null) return;
 
-            String[] columns = getTableColumns(selectedTable);
-            tableModel.setColumnIdentifiers(columns);
-            tableModel.setRowCount(0);
+        TableMeta<?> meta = TableMeta.forName(selectedTable);
 
-            List<String[]> records = databaseManager.getAllRecords(selectedTable, columns);
-            for (String[] record : records) {
-                tableModel.addRow(record);
+        // Rows are paged in lazily in the background as they scroll into view
+        if (tableModel == null || !tableModel.getTableName().equals(selectedTable)) {
+            if (tableModel != null) {
+                tableModel.cancelPending(); // Superseded by the newly selected table
+            }
+            // Whole-table snapshots allow search and sort; -Drestaurant.pagedTables=true pages huge tables instead
+            tableModel = Boolean.getBoolean("restaurant.pagedTables")
+                    ? new PagedTableModel<>(databaseService, meta)
+                    : new SnapshotTableModel<>(databaseService, meta);
+            table.setModel(tableModel);
+            searchField.setEnabled(tableModel instanceof SnapshotTableModel);
+            applySearch();
+        }
+        AsyncDatabaseService.onEdt(Metrics.timed("ui.loadTable", tableModel.reload()), rowCount -> {
+            if (!firstTableLoaded) {
+                firstTableLoaded = true;
+                StartupTrace.mark("firstTableLoaded");
             }
+        }, ex -> showError("Error loading data: ", ex));
 
-            // Update Input Fields based on table columns
-            updateInputFields(columns);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(null, "Error loading data: " + ex.getMessage());
+        // Update Input Fields based on table columns
+        updateInputFields(meta);
+    }
+
+    private void applySearch() {
+        if (tableModel instanceof SnapshotTableModel<?> snapshotModel) {
+            snapshotModel.setFilter(searchField.getText().trim(), false);
+            searchField.setToolTipText("Search " + snapshotModel.getFilterColumnName());
         }
     }
 
-    private void updateInputFields(String[] columns) {
+    // Report a failed background operation; back-pressure rejections and edit conflicts get a friendlier message
+    private void showError(String message, Throwable ex) {
+        if (ex instanceof RejectedExecutionException) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Busy", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (ex instanceof StaleRecordException) {
+            loadTableData(); // Show the other terminal's change
+            JOptionPane.showMessageDialog(this, ex.getMessage() + "\nThe table has been reloaded; please review and try again.",
+                    "Conflict", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        ex.printStackTrace();
+        JOptionPane.showMessageDialog(this, message + ex.getMessage());
+    }
+
+    private void updateInputFields(TableMeta<?> meta) {
         // Clear previous input fields
         inputPanel.removeAll();
 
-        // Create new input fields based on the number of columns
-        int numColumns = columns.length;
+        // One input field per column, except a key the database generates (e.g. customer_id)
+        List<? extends TableMeta.Column<?>> columns = meta.inputColumns();
+        int numColumns = columns.size();
 
-        // If the table is 'customers', remove 'customer_id' from the list of columns
-        if (columns[0].equals("customer_id")) {
-            // Exclude 'customer_id' from the columns
-            columns = Arrays.copyOfRange(columns, 1, columns.length); // Skip the first column (customer_id)
-            numColumns--; // Adjust the number of columns
-        }
-
-        inputFields = new JComponent[numColumns]; // Make sure to include the adjusted number of columns
+        inputFields = new JComponent[numColumns];
         inputPanel.setLayout(new GridLayout(1, numColumns)); // Update layout to match the number of fields
 
         for (int i = 0; i < numColumns; i++) { // Create input fields for each column
-            if (columns[i].equals("status")) {
-                JComboBox<String> statusComboBox = new JComboBox<>(new String[]{"Present", "Late", "Absent"});
+            List<String> choices = columns.get(i).choices();
+            if (!choices.isEmpty()) {
+                JComboBox<String> statusComboBox = new JComboBox<>(choices.toArray(new String[0]));
                 inputPanel.add(statusComboBox);
                 inputFields[i] = statusComboBox;
             } else {
@@ -168,6 +288,10 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
         inputPanel.repaint();
     }
 
+    // A rendered struk and the file it was saved to
+    private record SavedBill(String text, java.nio.file.Path file) {
+    }
+
     private void generateBill() {
         try {
             // Ambil data pelanggan yang dipilih
@@ -178,58 +302,63 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
             }
 
             // Ambil informasi dari tabel 'customers'
-            String customerName = (String) tableModel.getValueAt(selectedRow, 1); // customer_name
-            String orderMenuCode = (String) tableModel.getValueAt(selectedRow, 2); // order_menu (kode pesanan)
-
-            // Ambil informasi dari tabel 'menu' berdasarkan menu_item_id
-            String[] menuColumns = getTableColumns("menu");
-            List<String[]> menuRecords = databaseManager.getAllRecords("menu", menuColumns);
-
-            String orderMenuName = null;
-            double totalPrice = 0;
-            boolean itemFound = false;
-
-            for (String[] menuRecord : menuRecords) {
-                if (menuRecord[0].equals(orderMenuCode)) { // Cocokkan menu_item_id (kolom pertama)
-                    orderMenuName = menuRecord[1]; // Ambil item_name (kolom kedua)
-                    totalPrice = Double.parseDouble(menuRecord[2]); // Ambil price (kolom ketiga)
-                    itemFound = true;
-                    break;
-                }
-            }
-
-            if (!itemFound) {
-                JOptionPane.showMessageDialog(this, "Kode pesanan '" + orderMenuCode + "' tidak ditemukan di tabel menu.");
+            if (!(tableModel.getRow(selectedRow) instanceof Customer customer)) {
+                JOptionPane.showMessageDialog(this, "Pilih pelanggan untuk menghasilkan struk.");
                 return;
             }
+            String customerName = customer.name();
+            String orderMenuCode = customer.orderMenu(); // order_menu (kode pesanan)
+
+            // Cari menu dan simpan struk di background thread; hasilnya null jika kode tidak ditemukan
+            CompletableFuture<SavedBill> billTask = databaseService.submit(db -> {
+                // Pesanan terbaru pelanggan dihitung langsung di database
+                Bill orderBill = db.getLatestBill(customer.id());
+                if (orderBill == null) {
+                    // Pelanggan lama tanpa pesanan: ambil informasi menu dari cache berdasarkan menu_item_id
+                    MenuItem menuItem = null;
+                    try {
+                        if (orderMenuCode != null) {
+                            menuItem = menuCache.get(Integer.parseInt(orderMenuCode.trim()));
+                        }
+                    } catch (NumberFormatException e) {
+                        // Not a menu code, reported below as not found
+                    }
+                    if (menuItem == null) {
+                        return null;
+                    }
+                    orderBill = new Bill(0, customerName, null, List.of(new Bill.Line(menuItem.id(), menuItem.name(), 1,
+                            menuItem.priceMinor(), menuItem.priceMinor())), menuItem.priceMinor());
+                }
 
-            // Format struk
-            String bill = "=== STRUK PEMBAYARAN ===\n" +
-                          "Nama Pelanggan: " + customerName + "\n" +
-                          "Pesanan: " + orderMenuName + "\n" +
-                          "Total Harga: Rp " + String.format("%.2f", totalPrice) + "\n" +
-                          "=========================";
-
-            // Tampilkan struk di dialog
-            JOptionPane.showMessageDialog(this, bill, "Struk Pembayaran", JOptionPane.INFORMATION_MESSAGE);
+                // Simpan struk ke file bernomor urut, supaya nama pelanggan yang sama tidak saling menimpa
+                String bill = BillFormatter.format(orderBill);
+                java.nio.file.Path file = receiptStore().save(bill);
+                return new SavedBill(bill, file);
+            });
 
-            // Simpan struk ke file
-            String fileName = customerName.replace(" ", "_") + "_bill.txt";
-            java.nio.file.Files.write(java.nio.file.Paths.get(fileName), bill.getBytes());
-            JOptionPane.showMessageDialog(this, "Struk disimpan ke file: " + fileName);
+            AsyncDatabaseService.onEdt(Metrics.timed("ui.generateBill", billTask), result -> {
+                if (result == null) {
+                    JOptionPane.showMessageDialog(this, "Kode pesanan '" + orderMenuCode + "' tidak ditemukan di tabel menu.");
+                    return;
+                }
+                // Tampilkan struk di dialog, dengan nama file tempat struk disimpan
+                JTextArea struk = new JTextArea(result.text() + "\n\nStruk disimpan ke file: " + result.file());
+                struk.setEditable(false);
+                struk.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+                JOptionPane.showMessageDialog(this, struk, "Struk Pembayaran", JOptionPane.INFORMATION_MESSAGE);
+            }, ex -> showError("Gagal menghasilkan struk: ", ex));
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this, "Gagal menghasilkan struk: " + ex.getMessage());
         }
     }
 
-    private String[] getTableColumns(String tableName) {
-        return switch (tableName) {
-            case "customers" -> new String[]{"customer_id", "customer_name", "order_menu"};
-            case "employees" -> new String[]{"employee_id", "date", "status"};
-            case "menu" -> new String[]{"menu_item_id", "item_name", "price"};
-            default -> new String[]{};
-        };
+    // Created on first use, in -Drestaurant.receipts.dir (default "receipts")
+    private synchronized ReceiptStore receiptStore() throws java.io.IOException {
+        if (receiptStore == null) {
+            receiptStore = new ReceiptStore(java.nio.file.Paths.get(System.getProperty("restaurant.receipts.dir", "receipts")));
+        }
+        return receiptStore;
     }
 
     private void addRecord() {
@@ -237,15 +366,14 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
             String selectedTable = (String) tableSelector.getSelectedItem();
             if (selectedTable == null) return;
 
-            String[] columns = getTableColumns(selectedTable);
-            
-            // If the table is 'customers', exclude 'customer_id'
-            if (selectedTable.equals("customers")) {
-                // Create a new array without the 'customer_id' column
-                columns = removeCustomerIdColumn(columns);
+            // Every column except a generated key (customer_id)
+            List<? extends TableMeta.Column<?>> inputColumns = TableMeta.forName(selectedTable).inputColumns();
+            String[] columns = new String[inputColumns.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = inputColumns.get(i).name();
             }
 
-            String[] values = new String[columns.length]; // Include all columns (except 'customer_id')
+            String[] values = new String[columns.length];
 
             for (int i = 0; i < columns.length; i++) {
                 if (inputFields[i] instanceof JTextField) {
@@ -255,33 +383,44 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
                 }
             }
 
-            // Now insert the record with the updated columns and values
-            if (databaseManager.insertRecord(selectedTable, columns, values)) {
-                loadTableData();
-                JOptionPane.showMessageDialog(null, "Record added successfully.");
+            // New customers get a real order from their codes, e.g. "1, 3x2"
+            String[] insertColumns = columns;
+            CompletableFuture<Boolean> insertTask;
+            if (selectedTable.equals("customers")) {
+                List<OrderLine> orderLines;
+                try {
+                    orderLines = OrderLine.parseAll(values[1]);
+                } catch (IllegalArgumentException e) {
+                    JOptionPane.showMessageDialog(null, "Kode pesanan tidak valid: " + values[1]);
+                    return;
+                }
+                if (orderLines.isEmpty()) {
+                    insertTask = databaseService.submit(db -> db.insertRecord(selectedTable, insertColumns, values));
+                } else if (orderJournal != null) {
+                    // Durable once journaled; the row appears when the replayer reaches the database
+                    insertTask = orderJournal.appendCustomerOrder(values[0], values[1], orderLines)
+                            .thenApply(seq -> true);
+                } else {
+                    insertTask = databaseService.submit(db -> db.insertCustomerOrder(values[0], values[1], orderLines) > 0);
+                }
             } else {
-                JOptionPane.showMessageDialog(null, "Failed to add record.");
+                // Now insert the record with the updated columns and values
+                insertTask = databaseService.submit(db -> db.insertRecord(selectedTable, insertColumns, values));
             }
+            AsyncDatabaseService.onEdt(Metrics.timed("ui.addRecord", insertTask),
+                    added -> {
+                        if (added) {
+                            JOptionPane.showMessageDialog(null, "Record added successfully.");
+                        } else {
+                            JOptionPane.showMessageDialog(null, "Failed to add record.");
+                        }
+                    }, ex -> showError("Error adding record: ", ex));
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(null, "Error adding record: " + ex.getMessage());
         }
     }
 
-    // Helper method to remove 'customer_id' column for 'customers' table
-    private String[] removeCustomerIdColumn(String[] columns) {
-        int length = columns.length;
-        String[] newColumns = new String[length - 1];
-        int index = 0;
-
-        for (int i = 0; i < length; i++) {
-            if (!columns[i].equals("customer_id")) {
-                newColumns[index++] = columns[i];
-            }
-        }
-
-        return newColumns;
-    }
 
     private void updateRecord() {
         try {
@@ -294,19 +433,25 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
             String selectedTable = (String) tableSelector.getSelectedItem();
             if (selectedTable == null) return;
 
-            String[] columns = getTableColumns(selectedTable);
-            String id = (String) tableModel.getValueAt(selectedRow, 0); // Primary key value
+            TableRow row = tableModel.getRow(selectedRow);
+            if (row == null) return; // Still loading
+            String[] columns = tableModel.getMeta().columnNames();
+            String id = String.valueOf(row.key()); // Primary key value
+            long version = row.version(); // Version the user is looking at
 
-            // Exclude the ID column for update
+            // Exclude the ID column for update. The input fields follow inputColumns(), which
+            // starts with the ID when the table does not generate its keys.
             String[] updateColumns = Arrays.copyOfRange(columns, 1, columns.length);
             String[] values = new String[updateColumns.length];
+            int firstField = tableModel.getMeta().isGeneratedKey() ? 0 : 1;
 
             // Collect updated values from input fields
             for (int i = 0; i < updateColumns.length; i++) {
-                if (inputFields[i] instanceof JTextField) {
-                    values[i] = ((JTextField) inputFields[i]).getText();
-                } else if (inputFields[i] instanceof JComboBox) {
-                    values[i] = (String) ((JComboBox<?>) inputFields[i]).getSelectedItem();
+                JComponent field = inputFields[firstField + i];
+                if (field instanceof JTextField) {
+                    values[i] = ((JTextField) field).getText();
+                } else if (field instanceof JComboBox) {
+                    values[i] = (String) ((JComboBox<?>) field).getSelectedItem();
                 }
                 // Check for empty fields
                 if (values[i] == null || values[i].isEmpty()) {
@@ -315,16 +460,17 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
                 }
             }
 
-            // Construct WHERE clause
-            String whereClause = columns[0] + " = '" + id + "'"; // Wrap in quotes for string IDs
-
-            // Perform the update
-            if (databaseManager.updateRecord(selectedTable, updateColumns, values, whereClause)) {
-                loadTableData(); // Refresh table
-                JOptionPane.showMessageDialog(null, "Record updated successfully.");
-            } else {
-                JOptionPane.showMessageDialog(null, "Failed to update record.");
-            }
+            // Perform the update, keyed on the ID column; fails if another terminal changed the row meanwhile
+            AsyncDatabaseService.onEdt(Metrics.timed("ui.updateRecord",
+                            databaseService.submit(db -> db.updateRecord(selectedTable, updateColumns, values, columns[0], id, version))),
+                    updated -> {
+                        if (updated) {
+                            JOptionPane.showMessageDialog(null, "Record updated successfully.");
+                        } else {
+                            loadTableData();
+                            JOptionPane.showMessageDialog(null, "Failed to update record; it was deleted on another terminal.");
+                        }
+                    }, ex -> showError("Error updating record: ", ex));
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(null, "Error updating record: " + ex.getMessage());
@@ -343,16 +489,22 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
             String selectedTable = (String) tableSelector.getSelectedItem();
             if (selectedTable == null) return;
 
-            String[] columns = getTableColumns(selectedTable);
-            String id = (String) tableModel.getValueAt(selectedRow, 0);
-            String whereClause = columns[0] + " = " + id; // ID column
-
-            if (databaseManager.deleteRecord(selectedTable, whereClause)) {
-                loadTableData();
-                JOptionPane.showMessageDialog(null, "Record deleted successfully.");
-            } else {
-                JOptionPane.showMessageDialog(null, "Failed to delete record.");
-            }
+            TableRow row = tableModel.getRow(selectedRow);
+            if (row == null) return; // Still loading
+            String keyColumn = tableModel.getMeta().keyColumn();
+            String id = String.valueOf(row.key());
+            long version = row.version();
+
+            AsyncDatabaseService.onEdt(Metrics.timed("ui.deleteRecord",
+                            databaseService.submit(db -> db.deleteRecord(selectedTable, keyColumn, id, version))),
+                    deleted -> {
+                        if (deleted) {
+                            JOptionPane.showMessageDialog(null, "Record deleted successfully.");
+                        } else {
+                            loadTableData();
+                            JOptionPane.showMessageDialog(null, "Failed to delete record; it was already deleted on another terminal.");
+                        }
+                    }, ex -> showError("Error deleting record: ", ex));
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(null, "Error deleting record: " + ex.getMessage());
@@ -367,34 +519,102 @@ public class ManagementGUI extends JFrame {  // Make sure it extends JFrame
                 return;
             }
 
-            String[] columns = getTableColumns(selectedTable);
-            List<String[]> records = databaseManager.getAllRecords(selectedTable, columns);
-
-            StringBuilder report = new StringBuilder();
-            // Add column headers
-            for (String column : columns) {
-                report.append(column).append(",");
-            }
-            report.setLength(report.length() - 1); // Remove the trailing comma
-            report.append("\n");
+            String[] columns = TableMeta.forName(selectedTable).columnNames();
+            String fileName = selectedTable + "_report.csv";
 
-            // Add records
-            for (String[] record : records) {
-                for (String value : record) {
-                    report.append(value).append(",");
+            // Streamed straight from the database to disk, with a cancellable progress dialog
+            ProgressMonitor monitor = new ProgressMonitor(this, "Generating " + fileName, null, 0, 100);
+            monitor.setMillisToDecideToPopup(200);
+
+            CompletableFuture<Long> reportTask = databaseService.submit(db -> {
+                int total = Math.max(1, db.countRecords(selectedTable));
+                return new ReportExporter(db).exportTable(selectedTable, columns, java.nio.file.Paths.get(fileName),
+                        rows -> SwingUtilities.invokeLater(() -> {
+                            monitor.setNote(rows + " of " + total + " rows");
+                            monitor.setProgress((int) Math.min(99, rows * 100 / total));
+                        }));
+            });
+
+            // Cancelling the dialog interrupts the export
+            Timer cancelWatcher = new Timer(200, e -> {
+                if (monitor.isCanceled()) {
+                    reportTask.cancel(true);
                 }
-                report.setLength(report.length() - 1); // Remove the trailing comma
-                report.append("\n");
-            }
-
-            // Save to a file (e.g., CSV)
-            String fileName = selectedTable + "_report.csv";
-            java.nio.file.Files.write(java.nio.file.Paths.get(fileName), report.toString().getBytes());
-            JOptionPane.showMessageDialog(this, "Report generated successfully: " + fileName);
+            });
+            cancelWatcher.start();
+            reportTask.whenCompleteAsync((rows, error) -> {
+                cancelWatcher.stop();
+                monitor.close();
+            }, AsyncDatabaseService.EDT);
+
+            AsyncDatabaseService.onEdt(Metrics.timed("ui.generateReport", reportTask),
+                    rows -> JOptionPane.showMessageDialog(this, "Report generated successfully: " + fileName
+                            + " (" + rows + " rows)"),
+                    ex -> showError("Error generating report: ", ex));
 
         } catch (Exception ex) {
             ex.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error generating report: " + ex.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private void showAnalytics() {
+        AnalyticsDashboard dashboard = new AnalyticsDashboard(this, databaseService);
+        dashboard.setVisible(true);
+        dashboard.refresh();
+    }
+
+    private void showDiagnostics() {
+        ConnectionPool pool = databaseService.getDatabaseManager().getPool();
+        new DiagnosticsDialog(this, pool, menuCache).setVisible(true);
+    }
+
+    private void exportEndOfDay() {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        java.nio.file.Path directory = java.nio.file.Paths.get("end-of-day-" + today);
+
+        // Leave one pooled connection free for the rest of the UI
+        ConnectionPool pool = databaseService.getDatabaseManager().getPool();
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), pool.getMaxSize() - 1));
+
+        AsyncDatabaseService.onEdt(Metrics.timed("ui.endOfDay",
+                        databaseService.submit(db -> new EndOfDayExport(db, parallelism).run(directory, today))),
+                result -> JOptionPane.showMessageDialog(this, "End-of-day export finished:\n" + result),
+                ex -> showError("Error running end-of-day export: ", ex));
+    }
+
+    private void importCsv() {
+        String selectedTable = (String) tableSelector.getSelectedItem();
+        if (selectedTable == null) {
+            JOptionPane.showMessageDialog(this, "Please select a table to import into.");
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+
+        AsyncDatabaseService.onEdt(Metrics.timed("ui.importCsv",
+                        databaseService.submit(db -> new CsvImporter(db).importFile(selectedTable, file))),
+                result -> {
+                    StringBuilder message = new StringBuilder("Imported ").append(result.inserted())
+                            .append(" rows into ").append(selectedTable).append(".");
+                    if (result.hasErrors()) {
+                        message.append("\n").append(result.errors().size()).append(" rows were rejected:");
+                        // Only list the first few, the rest are in the console
+                        int shown = 0;
+                        for (BulkImportResult.RowError error : result.errors()) {
+                            if (shown++ < 10) {
+                                message.append("\n  Row ").append(error.rowNumber()).append(": ").append(error.message());
+                            } else {
+                                System.err.println("Import row " + error.rowNumber() + ": " + error.message());
+                            }
+                        }
+                    }
+                    JOptionPane.showMessageDialog(this, message.toString());
+                }, ex -> showError("Error importing CSV: ", ex));
+    }
+}
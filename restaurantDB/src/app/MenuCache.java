@@ -0,0 +1,142 @@
+package app;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory copy of the 'menu' table indexed by menu_item_id, so pricing a bill needs no
+// database round-trip. Loaded on first use and kept current by listening to DatabaseManager
+// writes: updates and deletes touch only the affected item, while inserts without a known
+// key drop the cache to be reloaded on next use.
+//
+// Readers never lock: writers publish a fresh copy of the map. Every publish bumps the
+// generation, which lets readers such as OrderApiServer tell whether the menu has changed.
+public class MenuCache implements TableChangeListener {
+    private final DatabaseManager databaseManager;
+    private volatile IntMap<MenuItem> items;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public MenuCache(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        databaseManager.addChangeListener(this);
+    }
+
+    // Returns the menu item, or null if there is no item with this id
+    public MenuItem get(int menuItemId) throws SQLException {
+        MenuItem item = loaded().get(menuItemId);
+        if (item != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return item;
+    }
+
+    public int size() throws SQLException {
+        return loaded().size();
+    }
+
+    // Every item, ordered by id
+    public List<MenuItem> getAll() throws SQLException {
+        IntMap<MenuItem> current = loaded();
+        List<MenuItem> all = new ArrayList<>(current.size());
+        current.forEachValue(all::add);
+        all.sort(Comparator.comparingInt(MenuItem::id));
+        return all;
+    }
+
+    // Changes whenever the cached menu does; read it before the items it should describe
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    private IntMap<MenuItem> loaded() throws SQLException {
+        IntMap<MenuItem> current = items;
+        if (current == null) {
+            synchronized (this) {
+                current = items;
+                if (current == null) {
+                    current = load();
+                    items = current;
+                    generation.incrementAndGet();
+                }
+            }
+        }
+        return current;
+    }
+
+    private IntMap<MenuItem> load() throws SQLException {
+        List<MenuItem> menu = databaseManager.getMenuItems();
+        IntMap<MenuItem> map = new IntMap<>(menu.size());
+        for (MenuItem item : menu) {
+            map.put(item.id(), item);
+        }
+        return map;
+    }
+
+    // Drop everything; the next lookup reloads the whole menu
+    public synchronized void invalidate() {
+        items = null;
+        generation.incrementAndGet();
+    }
+
+    // Re-read a single item from the database
+    public synchronized void refresh(int menuItemId) throws SQLException {
+        if (items == null) {
+            return; // Not loaded yet, the first lookup will read it anyway
+        }
+        MenuItem item = databaseManager.getMenuItem(menuItemId);
+        IntMap<MenuItem> copy = items.copy();
+        if (item != null) {
+            copy.put(menuItemId, item);
+        } else {
+            copy.remove(menuItemId);
+        }
+        items = copy;
+        generation.incrementAndGet();
+    }
+
+    private synchronized void remove(int menuItemId) {
+        if (items != null) {
+            IntMap<MenuItem> copy = items.copy();
+            copy.remove(menuItemId);
+            items = copy;
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void tableChanged(TableChange change) {
+        if (!"menu".equals(change.tableName())) {
+            return;
+        }
+        Integer menuItemId = change.intKey();
+        if (menuItemId == null || (change.keyColumn() != null && !"menu_item_id".equals(change.keyColumn()))) {
+            invalidate();
+            return;
+        }
+        try {
+            if (change.type() == TableChange.Type.DELETE) {
+                remove(menuItemId);
+            } else {
+                refresh(menuItemId);
+            }
+        } catch (SQLException e) {
+            System.err.println("Menu cache refresh failed, reloading on next use: " + e.getMessage());
+            invalidate();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
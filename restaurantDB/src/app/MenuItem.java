@@ -0,0 +1,9 @@
+package app;
+
+// A row of the 'menu' table; price is held in minor units (1/100 Rupiah)
+public record MenuItem(int id, String name, long priceMinor, long version) implements TableRow {
+    @Override
+    public int key() {
+        return id;
+    }
+}
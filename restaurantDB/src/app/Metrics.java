@@ -0,0 +1,148 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lightweight, process-wide operation metrics: latency histograms, row counts and error counts
+// per named operation (e.g. "db.insertRecord", "pool.wait", "edt.dispatch").
+//
+// Off unless -Drestaurant.metrics=true (or setEnabled(true)). When off, start() returns 0 and
+// record() returns immediately, so instrumented code pays one volatile read per call.
+// Operations slower than the slow threshold are also emitted as JFR SlowQueryEvents, which are
+// timed whenever a JFR recording has that event enabled, even with metrics off.
+public final class Metrics {
+    private static final long SLOW_THRESHOLD_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("restaurant.metrics.slowMillis", 200));
+
+    private static volatile boolean enabled = Boolean.getBoolean("restaurant.metrics");
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    // Start timing an operation; pass the result to record()
+    public static long start() {
+        return enabled || SlowQueryEvent.TYPE.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    public static void record(String operation, long start, long rows, boolean success) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        if (enabled) {
+            operation(operation).record(nanos, rows, success);
+        }
+        if (nanos >= SLOW_THRESHOLD_NANOS) {
+            SlowQueryEvent.emit(operation, nanos, rows, success);
+        }
+    }
+
+    // Record how long a future takes to complete, e.g. a UI action from click to result
+    public static <T> CompletableFuture<T> timed(String operation, CompletableFuture<T> future) {
+        long start = start();
+        if (start != 0) {
+            future.whenComplete((value, error) -> record(operation, start, 0, error == null));
+        }
+        return future;
+    }
+
+    // Record an already measured duration, e.g. time spent waiting for a pooled connection
+    public static void recordNanos(String operation, long nanos) {
+        if (enabled) {
+            operation(operation).record(nanos, 0, true);
+        }
+    }
+
+    private static Operation operation(String name) {
+        Operation op = OPERATIONS.get(name);
+        return op != null ? op : OPERATIONS.computeIfAbsent(name, n -> new Operation());
+    }
+
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        OPERATIONS.forEach((name, op) -> snapshots.add(op.snapshot(name)));
+        snapshots.sort((a, b) -> a.name().compareTo(b.name()));
+        return snapshots;
+    }
+
+    public static void reset() {
+        OPERATIONS.clear();
+    }
+
+    // Point-in-time view of one operation; latencies in microseconds, percentiles are
+    // histogram bucket upper bounds (within a factor of two)
+    public record Snapshot(String name, long count, long errors, long rows, double meanMicros,
+                           long p50Micros, long p99Micros, long maxMicros) {
+    }
+
+    // Latency histogram with power-of-two microsecond buckets
+    private static final class Operation {
+        private static final int BUCKETS = 40;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos, long rowCount, boolean success) {
+            count.increment();
+            if (!success) {
+                errors.increment();
+            }
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+            long micros = nanos / 1_000;
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        Snapshot snapshot(String name) {
+            long n = count.sum();
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Snapshot(name, n, errors.sum(), rows.sum(),
+                    n == 0 ? 0 : totalNanos.sum() / 1_000.0 / n,
+                    percentile(counts, 0.50), percentile(counts, 0.99), maxNanos.get() / 1_000);
+        }
+
+        private static long percentile(long[] counts, double p) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            long target = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    return i == 0 ? 0 : 1L << i; // Upper bound of bucket i, which holds [2^(i-1), 2^i) us
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package app;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Appends a metrics snapshot to a local file at a fixed interval, one JSON object per line:
+// a line per operation plus one for the connection pool.
+public class MetricsFileReporter implements AutoCloseable {
+    private final Path file;
+    private final ConnectionPool pool;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsFileReporter(Path file, ConnectionPool pool, long intervalSeconds) {
+        this.file = file;
+        this.pool = pool;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    public void flush() throws IOException {
+        String now = Instant.now().toString();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Metrics.Snapshot op : Metrics.snapshot()) {
+                writer.write(String.format(Locale.ROOT,
+                        "{\"time\":\"%s\",\"operation\":\"%s\",\"count\":%d,\"errors\":%d,\"rows\":%d,"
+                        + "\"meanUs\":%.1f,\"p50Us\":%d,\"p99Us\":%d,\"maxUs\":%d}%n",
+                        now, op.name(), op.count(), op.errors(), op.rows(), op.meanMicros(),
+                        op.p50Micros(), op.p99Micros(), op.maxMicros()));
+            }
+            ConnectionPool.PoolStats stats = pool.getStats();
+            writer.write(String.format(Locale.ROOT,
+                    "{\"time\":\"%s\",\"pool\":{\"active\":%d,\"idle\":%d,\"waiting\":%d,\"borrows\":%d,"
+                    + "\"avgWaitUs\":%d,\"maxWaitUs\":%d,\"timeouts\":%d,\"leaks\":%d}}%n",
+                    now, stats.active(), stats.idle(), stats.waiting(), stats.borrows(),
+                    stats.avgWaitMicros(), stats.maxWaitMicros(), stats.timeouts(), stats.leaks()));
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        flushQuietly();
+    }
+}
@@ -0,0 +1,29 @@
+package app;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Money is carried as a long count of minor units (1/100 Rupiah) to avoid
+// floating-point rounding and repeated parsing.
+public final class Money {
+    public static final int MINOR_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long parseMinor(String amount) {
+        return toMinor(new BigDecimal(amount.trim()));
+    }
+
+    // Plain "25000.00" form, as printed on bills
+    public static String format(long minor) {
+        long units = minor / MINOR_PER_UNIT;
+        long cents = Math.abs(minor % MINOR_PER_UNIT);
+        String sign = minor < 0 && units == 0 ? "-" : "";
+        return sign + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+}
@@ -0,0 +1,34 @@
+package app;
+
+import java.sql.SQLException;
+
+// Shared MySQL server, used when several tills work against one database.
+// The schema is managed on the server (see schema.sql) rather than applied on startup.
+public class MySqlBackend implements StorageBackend {
+    // Cursor fetch lets report streaming honour its fetch size; batch rewriting turns
+    // executeBatch into multi-row INSERTs
+    private static final String DEFAULT_URL =
+            "jdbc:mysql://localhost:3306/myrestaurant?useCursorFetch=true&rewriteBatchedStatements=true";
+
+    @Override
+    public String name() {
+        return "mysql";
+    }
+
+    @Override
+    public String defaultUrl() {
+        return DEFAULT_URL;
+    }
+
+    @Override
+    public void initialize(DatabaseManager databaseManager) throws SQLException {
+        // The server already has the schema; only add the row versions and journal table older schemas lack
+        databaseManager.addVersionColumns();
+        databaseManager.createJournalTable();
+    }
+
+    @Override
+    public boolean isInProcess() {
+        return false;
+    }
+}
@@ -0,0 +1,594 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless HTTP/JSON API over the same DatabaseManager as the tills, for online ordering.
+//
+//   GET  /api/menu                 every menu item; ETag follows the MenuCache generation
+//   GET  /api/menu/{id}            one item; ETag follows its version
+//   GET  /api/customers            every customer, streamed
+//   GET  /api/customers/{id}       one customer; ETag follows its version
+//   POST /api/customers            {"name": "...", "items": [{"menuItemId": 1, "quantity": 2}]}
+//   GET  /api/orders               every order header, streamed
+//   GET  /api/orders/{id}          the priced bill; no ETag (see getOrder)
+//   POST /api/orders               {"customerId": 7, "items": [...]}
+//
+// Conditional GETs (If-None-Match) answer 304 when the ETag still matches. Menu reads are served
+// from MenuCache and never touch the database; a customer's version has to be read from its row
+// first, so a 304 for a customer only saves sending the body. The menu list is serialized once
+// per menu generation and served from memory until the menu changes.
+//
+// With an OrderJournal the POSTs answer 202 as soon as the order is on local disk and the
+// JournalReplayer writes it to the database; without one they answer 201 once committed.
+//
+// Requests run on a fixed pool of worker threads; when its queue is full the accepting thread
+// handles the request itself, which stops it accepting more until it is done. A database that
+// stays busy past the pool's borrow timeout gets 503 with Retry-After.
+public final class OrderApiServer implements AutoCloseable {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int QUEUE_PER_THREAD = 64;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String[] CUSTOMER_COLUMNS = {"customer_id", "customer_name", "order_menu",
+            DatabaseManager.VERSION_COLUMN};
+    private static final String[] ORDER_COLUMNS = {"order_id", "customer_id", "created_at"};
+
+    // The JDK server writes headers and body separately; with Nagle's algorithm the body then
+    // waits for the client's delayed ACK (about 40 ms per response). The setting is read once,
+    // when the first HttpServer is created, so set it here unless the command line already did.
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final DatabaseManager databaseManager;
+    private final MenuCache menuCache;
+    private final OrderJournal orderJournal;
+    private final BillCharges charges = BillCharges.fromSystemProperties();
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    // ETags from an earlier run must not match, since generations start again from zero
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    private volatile MenuBody menuBody;
+
+    // The serialized menu list for one MenuCache generation
+    private record MenuBody(long generation, String etag, byte[] json) {
+    }
+
+    // An error answer, thrown from a route and written by handle()
+    private static final class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    // orderJournal may be null
+    public OrderApiServer(DatabaseManager databaseManager, MenuCache menuCache, OrderJournal orderJournal,
+                          InetSocketAddress address, int threads) throws IOException {
+        this.databaseManager = databaseManager;
+        this.menuCache = menuCache;
+        this.orderJournal = orderJournal;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), r -> {
+                    Thread thread = new Thread(r, "order-api-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // The bound port, useful when started on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = Metrics.start();
+        String route = "unknown";
+        boolean success = false;
+        try {
+            String[] path = segments(exchange.getRequestURI());
+            if (path.length > 1 && (path[1].equals("menu") || path[1].equals("customers") || path[1].equals("orders"))) {
+                route = path[1] + (path.length > 2 ? ".id" : ""); // Metric names stay a fixed set
+            }
+            route(exchange, path);
+            success = true;
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (SQLIntegrityConstraintViolationException e) {
+            sendError(exchange, 422, e.getMessage());
+        } catch (SQLException e) {
+            if (DatabaseManager.isTransient(e)) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, e.getMessage());
+            } else {
+                System.err.println("Order API: " + e.getMessage());
+                sendError(exchange, 500, "Database error.");
+            }
+        } catch (IOException e) {
+            // The client went away; nothing left to answer
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error.");
+        } finally {
+            exchange.close();
+            Metrics.record("api." + route, start, 0, success);
+        }
+    }
+
+    private void route(HttpExchange exchange, String[] path) throws ApiException, SQLException, IOException {
+        if (path.length < 2 || path.length > 3 || !path[0].equals("api")) {
+            throw new ApiException(404, "No such resource.");
+        }
+        String method = exchange.getRequestMethod();
+        Integer id = path.length == 3 ? parseId(path[2]) : null;
+        switch (path[1]) {
+            case "menu" -> {
+                requireMethod(exchange, "GET");
+                if (id == null) {
+                    getMenu(exchange);
+                } else {
+                    getMenuItem(exchange, id);
+                }
+            }
+            case "customers" -> {
+                if (id != null) {
+                    requireMethod(exchange, "GET");
+                    getCustomer(exchange, id);
+                } else if (method.equals("POST")) {
+                    postCustomer(exchange);
+                } else {
+                    requireMethod(exchange, "GET, POST");
+                    listCustomers(exchange);
+                }
+            }
+            case "orders" -> {
+                if (id != null) {
+                    requireMethod(exchange, "GET");
+                    getOrder(exchange, id);
+                } else if (method.equals("POST")) {
+                    postOrder(exchange);
+                } else {
+                    requireMethod(exchange, "GET, POST");
+                    listOrders(exchange);
+                }
+            }
+            default -> throw new ApiException(404, "No such resource.");
+        }
+    }
+
+    private void getMenu(HttpExchange exchange) throws SQLException, IOException {
+        MenuBody body = menuBody;
+        // Read the generation before the items, so a change in between only costs a rebuild
+        long generation = menuCache.getGeneration();
+        if (body == null || body.generation() != generation) {
+            StringWriter text = new StringWriter();
+            Json.Writer json = new Json.Writer(text);
+            json.beginArray();
+            for (MenuItem item : menuCache.getAll()) {
+                writeMenuItem(json, item);
+            }
+            json.endArray();
+            body = new MenuBody(generation, "\"m" + instanceTag + "-" + generation + "\"",
+                    text.toString().getBytes(StandardCharsets.UTF_8));
+            menuBody = body;
+        }
+        if (notModified(exchange, body.etag())) {
+            return;
+        }
+        send(exchange, 200, body.json());
+    }
+
+    private void getMenuItem(HttpExchange exchange, int id) throws ApiException, SQLException, IOException {
+        MenuItem item = menuCache.get(id);
+        if (item == null) {
+            throw new ApiException(404, "Menu item " + id + " does not exist.");
+        }
+        if (notModified(exchange, "\"i" + id + "v" + item.version() + "\"")) {
+            return;
+        }
+        StringWriter text = new StringWriter();
+        writeMenuItem(new Json.Writer(text), item);
+        send(exchange, 200, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeMenuItem(Json.Writer json, MenuItem item) throws IOException {
+        json.beginObject()
+                .name("id").value(item.id())
+                .name("name").value(item.name())
+                .name("price").money(item.priceMinor())
+                .name("version").value(item.version())
+                .endObject();
+    }
+
+    private void getCustomer(HttpExchange exchange, int id) throws ApiException, SQLException, IOException {
+        Customer customer = databaseManager.getRecord(TableMeta.CUSTOMERS, id);
+        if (customer == null) {
+            throw new ApiException(404, "Customer " + id + " does not exist.");
+        }
+        if (notModified(exchange, "\"c" + id + "v" + customer.version() + "\"")) {
+            return;
+        }
+        StringWriter text = new StringWriter();
+        new Json.Writer(text).beginObject()
+                .name("id").value(customer.id())
+                .name("name").value(customer.name())
+                .name("orderMenu").value(customer.orderMenu())
+                .name("version").value(customer.version())
+                .endObject();
+        send(exchange, 200, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void listCustomers(HttpExchange exchange) throws SQLException, IOException {
+        stream(exchange, "customers", CUSTOMER_COLUMNS, (json, row) -> json.beginObject()
+                .name("id").value(Long.parseLong(row[0]))
+                .name("name").value(row[1])
+                .name("orderMenu").value(row[2])
+                .name("version").value(Long.parseLong(row[3]))
+                .endObject());
+    }
+
+    private void listOrders(HttpExchange exchange) throws SQLException, IOException {
+        stream(exchange, "orders", ORDER_COLUMNS, (json, row) -> json.beginObject()
+                .name("id").value(Long.parseLong(row[0]))
+                .name("customerId").value(Long.parseLong(row[1]))
+                .name("createdAt").value(row[2])
+                .endObject());
+    }
+
+    // Deliberately without an ETag: orders have no version column, and the bill's service charge
+    // and tax come from this process's settings, so no cheap tag would follow every change
+    private void getOrder(HttpExchange exchange, int id) throws ApiException, SQLException, IOException {
+        Bill bill = databaseManager.getBill(id);
+        if (bill == null) {
+            throw new ApiException(404, "Order " + id + " does not exist.");
+        }
+        long service = charges.service(bill.totalMinor());
+        long tax = charges.tax(bill.totalMinor());
+        StringWriter text = new StringWriter();
+        Json.Writer json = new Json.Writer(text);
+        json.beginObject()
+                .name("id").value(bill.orderId())
+                .name("customer").value(bill.customerName())
+                .name("createdAt").value(bill.createdAt() == null ? null : bill.createdAt().toInstant().toString())
+                .name("lines").beginArray();
+        for (Bill.Line line : bill.lines()) {
+            json.beginObject()
+                    .name("menuItemId").value(line.menuItemId())
+                    .name("item").value(line.itemName())
+                    .name("quantity").value(line.quantity())
+                    .name("unitPrice").money(line.unitPriceMinor())
+                    .name("amount").money(line.lineTotalMinor())
+                    .endObject();
+        }
+        json.endArray()
+                .name("subtotal").money(bill.totalMinor())
+                .name("service").money(service)
+                .name("tax").money(tax)
+                .name("total").money(bill.totalMinor() + service + tax)
+                .endObject();
+        send(exchange, 200, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void postCustomer(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        Map<String, Object> request = readObject(exchange);
+        Object name = request.get("name");
+        if (!(name instanceof String customerName) || customerName.isBlank()) {
+            throw new ApiException(400, "'name' is required.");
+        }
+        List<OrderLine> lines = orderLines(request);
+        String orderMenu = orderMenu(lines);
+        if (orderJournal != null) {
+            long seq = await(orderJournal.appendCustomerOrder(customerName.trim(), orderMenu, lines));
+            sendAccepted(exchange, seq);
+            return;
+        }
+        int customerId = databaseManager.insertCustomerOrder(customerName.trim(), orderMenu, lines);
+        exchange.getResponseHeaders().set("Location", "/api/customers/" + customerId);
+        StringWriter text = new StringWriter();
+        new Json.Writer(text).beginObject().name("id").value(customerId).endObject();
+        send(exchange, 201, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void postOrder(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        Map<String, Object> request = readObject(exchange);
+        if (!(request.get("customerId") instanceof Long customerId) || customerId < 1 || customerId > Integer.MAX_VALUE) {
+            throw new ApiException(400, "'customerId' must be a positive integer.");
+        }
+        List<OrderLine> lines = orderLines(request);
+        if (orderJournal != null) {
+            long seq = await(orderJournal.appendOrder(customerId.intValue(), lines));
+            sendAccepted(exchange, seq);
+            return;
+        }
+        int orderId = databaseManager.insertOrder(customerId.intValue(), lines);
+        exchange.getResponseHeaders().set("Location", "/api/orders/" + orderId);
+        StringWriter text = new StringWriter();
+        new Json.Writer(text).beginObject().name("id").value(orderId).endObject();
+        send(exchange, 201, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // "items": [{"menuItemId": 1, "quantity": 2}, ...], checked against the menu up front so an
+    // unknown item is a 400 rather than a failed transaction
+    private List<OrderLine> orderLines(Map<String, Object> request) throws ApiException, SQLException {
+        if (!(request.get("items") instanceof List<?> items) || items.isEmpty()) {
+            throw new ApiException(400, "'items' must list at least one menu item.");
+        }
+        List<OrderLine> lines = new ArrayList<>(items.size());
+        for (Object element : items) {
+            if (!(element instanceof Map<?, ?> item)
+                    || !(item.get("menuItemId") instanceof Long menuItemId)
+                    || menuItemId < 1 || menuItemId > Integer.MAX_VALUE) {
+                throw new ApiException(400, "Every item needs a positive integer 'menuItemId'.");
+            }
+            Object quantity = item.get("quantity");
+            if (quantity != null && (!(quantity instanceof Long count) || count < 1 || count > 1_000)) {
+                throw new ApiException(400, "'quantity' must be between 1 and 1000.");
+            }
+            if (menuCache.get(menuItemId.intValue()) == null) {
+                throw new ApiException(400, "Menu item " + menuItemId + " does not exist.");
+            }
+            lines.add(new OrderLine(menuItemId.intValue(), quantity == null ? 1 : ((Long) quantity).intValue()));
+        }
+        return lines;
+    }
+
+    // The order codes as a till would have typed them, e.g. "1, 3x2"
+    private static String orderMenu(List<OrderLine> lines) {
+        StringBuilder codes = new StringBuilder();
+        for (OrderLine line : lines) {
+            if (codes.length() > 0) {
+                codes.append(", ");
+            }
+            codes.append(line.menuItemId());
+            if (line.quantity() > 1) {
+                codes.append('x').append(line.quantity());
+            }
+        }
+        return codes.toString();
+    }
+
+    private void sendAccepted(HttpExchange exchange, long seq) throws IOException {
+        StringWriter text = new StringWriter();
+        new Json.Writer(text).beginObject().name("journalSeq").value(seq).endObject();
+        send(exchange, 202, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long await(CompletableFuture<Long> durable) throws ApiException {
+        try {
+            return durable.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Interrupted while journaling the order.");
+        } catch (ExecutionException e) {
+            throw new ApiException(503, "The order journal is unavailable: " + e.getCause().getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Json.Writer json, String[] row) throws IOException;
+    }
+
+    // Stream a whole table as a JSON array. The status line goes out with the first buffer, so
+    // an error before that still gets a proper error answer; one after it truncates the array.
+    private void stream(HttpExchange exchange, String table, String[] columns, RowWriter rowWriter)
+            throws SQLException, IOException {
+        ResponseStream out = new ResponseStream(exchange);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8 * 1024);
+        Json.Writer json = new Json.Writer(writer);
+        json.beginArray();
+        databaseManager.streamRecords(table, columns, row -> rowWriter.write(json, row));
+        json.endArray();
+        writer.flush();
+        out.close();
+    }
+
+    // Sends 200 with chunked encoding when the first bytes are written
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private OutputStream body;
+
+        ResponseStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        private OutputStream body() throws IOException {
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            body().write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            body().close();
+        }
+    }
+
+    private static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void requireMethod(HttpExchange exchange, String allowed) throws ApiException {
+        for (String method : allowed.split(", ")) {
+            if (method.equals(exchange.getRequestMethod())) {
+                return;
+            }
+        }
+        exchange.getResponseHeaders().set("Allow", allowed);
+        throw new ApiException(405, exchange.getRequestMethod() + " is not allowed here.");
+    }
+
+    private static Map<String, Object> readObject(HttpExchange exchange) throws ApiException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+                if (bytes.size() > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes.");
+                }
+            }
+        }
+        Object parsed = Json.parse(bytes.toString(StandardCharsets.UTF_8));
+        if (!(parsed instanceof Map<?, ?>)) {
+            throw new ApiException(400, "The request body must be a JSON object.");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) parsed;
+        return object;
+    }
+
+    private static String[] segments(URI uri) {
+        String path = uri.getPath();
+        int from = path.startsWith("/") ? 1 : 0;
+        int to = path.endsWith("/") && path.length() > 1 ? path.length() - 1 : path.length();
+        return from >= to ? new String[0] : path.substring(from, to).split("/");
+    }
+
+    private static Integer parseId(String segment) throws ApiException {
+        try {
+            int id = Integer.parseInt(segment);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw new ApiException(404, "No such resource.");
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Best effort: after a streamed response has started the status can no longer change
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        try {
+            StringWriter text = new StringWriter();
+            new Json.Writer(text).beginObject().name("error").value(message).endObject();
+            send(exchange, status, text.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = 8080;
+        int threads = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Usage: OrderApiServer [--port n] [--threads n]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            DatabaseConfig config = DatabaseConfig.load();
+            StorageBackend backend = StorageBackend.forName(config.backend());
+            ConnectionPool pool = backend.openPool(config);
+            DatabaseManager databaseManager = new DatabaseManager(pool);
+            backend.initialize(databaseManager);
+            MenuCache menuCache = new MenuCache(databaseManager);
+            ChangeFeed changeFeed = ChangeFeed.open(databaseManager, backend);
+            changeFeed.subscribeRemote(menuCache);
+            // More workers than connections just queue on the pool; a few extra cover 304s
+            OrderApiServer server = new OrderApiServer(databaseManager, menuCache, null,
+                    new InetSocketAddress(port), threads > 0 ? threads : pool.getMaxSize() * 2);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                changeFeed.close();
+                pool.close();
+            }));
+            System.out.println("Order API listening on port " + server.getPort());
+        } catch (IOException | SQLException e) {
+            System.err.println("Order API failed to start: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
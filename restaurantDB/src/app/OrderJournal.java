@@ -0,0 +1,497 @@
+package app;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+// Local append-only journal of orders, memory-mapped from a fixed-size file.
+// append() copies the order into the mapping and returns a future that completes once the
+// order is on disk. A flusher thread forces everything written since its last pass in one
+// call, so orders arriving while a force is running share the next one (group commit).
+// groupCommitMillis additionally holds each force back to gather more orders; on local disks
+// the natural batching is usually enough (see OrderJournalBenchmark).
+// JournalReplayer drains durable orders to the database and acknowledges them by sequence
+// number; only the unacknowledged tail is replayed after a restart.
+//
+// File layout:
+//   header (64 bytes)  magic, format, journal id (UUID), acknowledged seq, seq and position
+//                      of the first unacknowledged record
+//   records            length, CRC32 of seq + payload, seq, payload
+// A record ends the log when its length, CRC or seq does not follow on from the previous one.
+// The records form a ring: acknowledging moves the head past the applied orders, and a record
+// that does not fit before the end of the file is written at the top behind a wrap marker, as
+// long as it stays clear of the head. The file is only full when that many orders are still
+// waiting for the database.
+public class OrderJournal implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+
+    private static final int MAGIC = 0x4F524A31; // "ORJ1"
+    private static final int FORMAT = 2; // 1 had no head position: the log always started at the top
+    private static final int ID_OFFSET = 8;
+    private static final int ACKED_OFFSET = 24;
+    private static final int HEAD_SEQ_OFFSET = 32;
+    private static final int HEAD_POS_OFFSET = 40;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 16; // length, crc, seq
+    private static final int WRAP = -1; // In place of a length: the log continues at the top
+    private static final int MAX_STRING_BYTES = 4 * 1024;
+    private static final long FIRST_RETRY_MILLIS = 10;
+    private static final long MAX_RETRY_MILLIS = 1_000;
+    private static final byte[] CLEARED_HEADER = new byte[RECORD_HEADER_SIZE];
+
+    // One journaled order. customerId 0 means a new customer is created from name and menu codes.
+    public record Entry(long seq, int customerId, String customerName, String orderMenu, List<OrderLine> lines) {
+    }
+
+    private record Waiter(long seq, CompletableFuture<Long> future) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final String journalId;
+    private final long groupCommitMillis;
+    private final Thread flusher;
+
+    // Guarded by this
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private int headPos;        // First unacknowledged record, or writePos if there is none
+    private int writePos;       // End of the last record
+    private int flushedPos;     // Everything before this is on disk
+    private int readPos;        // Next record handed to the replayer
+    private long nextSeq;       // Seq of the next appended record
+    private long durableSeq;    // Highest seq on disk
+    private long readSeq;       // Highest seq handed to the replayer
+    private long ackedSeq;      // Highest seq applied to the database
+    private boolean closed;
+
+    public OrderJournal(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, 0);
+    }
+
+    public OrderJournal(Path file, int capacity, long groupCommitMillis) throws IOException {
+        if (capacity < HEADER_SIZE * 2) {
+            throw new IllegalArgumentException("Journal capacity is too small: " + capacity);
+        }
+        this.groupCommitMillis = groupCommitMillis;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean existing = channel.size() >= HEADER_SIZE;
+            int size = existing ? (int) Math.min(Integer.MAX_VALUE, Math.max(channel.size(), capacity)) : capacity;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (existing && buffer.getInt(0) == MAGIC) {
+                int format = buffer.getInt(4);
+                if (format != FORMAT && format != 1) {
+                    throw new IOException("Unsupported order journal format " + format + " in " + file);
+                }
+                journalId = new UUID(buffer.getLong(ID_OFFSET), buffer.getLong(ID_OFFSET + 8)).toString();
+                recover();
+                if (format != FORMAT) {
+                    writeHead();
+                    buffer.putInt(4, FORMAT);
+                    buffer.force(0, HEADER_SIZE);
+                }
+            } else {
+                UUID id = UUID.randomUUID();
+                journalId = id.toString();
+                buffer.putInt(4, FORMAT);
+                buffer.putLong(ID_OFFSET, id.getMostSignificantBits());
+                buffer.putLong(ID_OFFSET + 8, id.getLeastSignificantBits());
+                buffer.putLong(ACKED_OFFSET, 0);
+                buffer.putLong(HEAD_SEQ_OFFSET, 1);
+                buffer.putInt(HEAD_POS_OFFSET, HEADER_SIZE);
+                buffer.putInt(HEADER_SIZE, 0);
+                buffer.putInt(0, MAGIC); // Last, so a torn header is treated as a new journal
+                buffer.force(0, HEADER_SIZE + 4);
+                headPos = writePos = flushedPos = readPos = HEADER_SIZE;
+                nextSeq = 1;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        flusher = new Thread(this::flushLoop, "order-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Find the end of the log and skip what the database already has
+    private void recover() {
+        ackedSeq = buffer.getLong(ACKED_OFFSET);
+        long seq = buffer.getLong(HEAD_SEQ_OFFSET);
+        int pos = Math.max(buffer.getInt(HEAD_POS_OFFSET), HEADER_SIZE); // 0 in format 1
+        readPos = -1;
+        while (true) {
+            int length = recordLength(pos, seq);
+            // A wrap marker only counts if the next record is at the top; otherwise it is left
+            // over from an earlier pass and the log ends here
+            if (length < 0 && wrapsAt(pos)) {
+                length = recordLength(HEADER_SIZE, seq);
+                if (length >= 0) {
+                    pos = HEADER_SIZE;
+                }
+            }
+            if (length < 0) {
+                break;
+            }
+            if (seq == ackedSeq + 1) {
+                readPos = pos;
+            }
+            pos += length;
+            seq++;
+        }
+        writePos = flushedPos = pos;
+        nextSeq = seq;
+        durableSeq = seq - 1;
+        readSeq = ackedSeq;
+        if (readPos < 0) {
+            readPos = pos; // Everything was acknowledged
+        }
+        headPos = readPos;
+    }
+
+    private boolean wrapsAt(int pos) {
+        return pos + 4 <= buffer.capacity() && buffer.getInt(pos) == WRAP;
+    }
+
+    private int skipWrap(int pos) {
+        return wrapsAt(pos) ? HEADER_SIZE : pos;
+    }
+
+    // Total size of the record at pos if it is intact and carries the expected seq, else -1
+    private int recordLength(int pos, long expectedSeq) {
+        if (pos + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int payload = buffer.getInt(pos);
+        if (payload <= 0 || pos + RECORD_HEADER_SIZE + payload > buffer.capacity()
+                || buffer.getLong(pos + 8) != expectedSeq) {
+            return -1;
+        }
+        byte[] bytes = new byte[8 + payload];
+        buffer.get(pos + 8, bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue() == buffer.getInt(pos + 4) ? RECORD_HEADER_SIZE + payload : -1;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    // Journal an order for a new customer; completes with its seq once it is on disk
+    public CompletableFuture<Long> appendCustomerOrder(String customerName, String orderMenu, List<OrderLine> lines)
+            throws IOException {
+        return append(0, customerName, orderMenu, lines);
+    }
+
+    // Journal an order for an existing customer
+    public CompletableFuture<Long> appendOrder(int customerId, List<OrderLine> lines) throws IOException {
+        if (customerId <= 0) {
+            throw new IllegalArgumentException("Invalid customer id: " + customerId);
+        }
+        return append(customerId, null, null, lines);
+    }
+
+    private CompletableFuture<Long> append(int customerId, String customerName, String orderMenu,
+                                           List<OrderLine> lines) throws IOException {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("An order needs at least one item.");
+        }
+        byte[] name = encode(customerName);
+        byte[] menu = encode(orderMenu);
+        int payload = 4 + 2 + length(name) + 2 + length(menu) + 4 + lines.size() * 8;
+
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Order journal is closed.");
+            }
+            // Past the end of the file the ring continues at the top, up to the head. The 4 bytes
+            // after each record hold the terminator (or a later wrap marker).
+            int size = RECORD_HEADER_SIZE + payload;
+            boolean wrap = writePos >= headPos && writePos + size + 4 > buffer.capacity();
+            int recordPos = wrap ? HEADER_SIZE : writePos;
+            int limit = wrap || writePos < headPos ? headPos : buffer.capacity();
+            int end = recordPos + size;
+            if (end + 4 > limit) {
+                throw new IOException("Order journal is full (" + (nextSeq - 1 - ackedSeq)
+                        + " orders waiting for the database).");
+            }
+
+            long seq = nextSeq;
+            int pos = recordPos + RECORD_HEADER_SIZE;
+            buffer.putLong(recordPos + 8, seq);
+            buffer.putInt(pos, customerId);
+            pos = putString(pos + 4, name);
+            pos = putString(pos, menu);
+            buffer.putInt(pos, lines.size());
+            pos += 4;
+            for (OrderLine line : lines) {
+                buffer.putInt(pos, line.menuItemId());
+                buffer.putInt(pos + 4, line.quantity());
+                pos += 8;
+            }
+            buffer.putInt(end, 0); // Terminates the log until the next record overwrites it
+
+            byte[] checked = new byte[8 + payload];
+            buffer.get(recordPos + 8, checked);
+            CRC32 crc = new CRC32();
+            crc.update(checked);
+            buffer.putInt(recordPos + 4, (int) crc.getValue());
+            buffer.putInt(recordPos, payload);
+            if (wrap) {
+                buffer.putInt(writePos, WRAP);
+            }
+
+            writePos = end;
+            nextSeq++;
+            waiters.add(new Waiter(seq, durable));
+            notifyAll();
+        }
+        return durable;
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long for the order journal: " + bytes.length + " bytes.");
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private int putString(int pos, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort(pos, (short) -1);
+            return pos + 2;
+        }
+        buffer.putShort(pos, (short) bytes.length);
+        buffer.put(pos + 2, bytes);
+        return pos + 2 + bytes.length;
+    }
+
+    private String getString(int pos, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(pos, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void flushLoop() {
+        long retryMillis = 0;
+        while (true) {
+            int from;
+            int to;
+            long target;
+            synchronized (this) {
+                while (durableSeq == nextSeq - 1 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (durableSeq == nextSeq - 1) {
+                    return; // Closed with nothing left to flush
+                }
+            }
+            if (groupCommitMillis > 0) {
+                try {
+                    Thread.sleep(groupCommitMillis); // Let concurrent orders join this force
+                } catch (InterruptedException e) {
+                    // Closing; flush what is there
+                }
+            }
+            synchronized (this) {
+                from = flushedPos;
+                to = writePos;
+                target = nextSeq - 1;
+            }
+
+            List<Waiter> done = new ArrayList<>();
+            IOException failure = null;
+            try {
+                long start = Metrics.start();
+                // Up to and including the terminator after the last record, so a crash cannot
+                // leave a stale header there to be read as the next record
+                if (to >= from) {
+                    buffer.force(from, to - from + 4);
+                } else { // Wrapped: the end of the file, then the top
+                    buffer.force(from, buffer.capacity() - from);
+                    buffer.force(HEADER_SIZE, to - HEADER_SIZE + 4);
+                }
+                Metrics.record("journal.force", start, target - durableSeq, true);
+            } catch (RuntimeException e) {
+                failure = new IOException("Could not flush the order journal.", e);
+            }
+            synchronized (this) {
+                if (failure == null) {
+                    durableSeq = target;
+                    flushedPos = to;
+                } else {
+                    discardUnflushed();
+                }
+                while (!waiters.isEmpty() && (failure != null || waiters.peek().seq() <= target)) {
+                    done.add(waiters.poll());
+                }
+                notifyAll();
+            }
+            for (Waiter waiter : done) {
+                if (failure == null) {
+                    waiter.future().complete(waiter.seq());
+                } else {
+                    waiter.future().completeExceptionally(failure);
+                }
+            }
+            // A failing disk usually keeps failing; don't hammer it with every new order
+            retryMillis = failure == null ? 0 : Math.min(Math.max(retryMillis * 2, FIRST_RETRY_MILLIS), MAX_RETRY_MILLIS);
+            if (retryMillis > 0) {
+                try {
+                    Thread.sleep(retryMillis);
+                } catch (InterruptedException e) {
+                    // Retry now
+                }
+            }
+        }
+    }
+
+    // After a failed force: drop every record that is not on disk. Their appenders are told the
+    // order failed and may retry it, so the records must never be replayed. Each header is zeroed
+    // (the log now ends at flushedPos) and forced, and the seqs are handed out again. If that force
+    // fails too, the next successful flush rewrites the log end at flushedPos.
+    private void discardUnflushed() {
+        int pos = flushedPos;
+        while (pos != writePos) {
+            int length = buffer.getInt(pos);
+            if (length == WRAP) {
+                buffer.putInt(pos, 0);
+                forceQuietly(pos, 4);
+                pos = HEADER_SIZE;
+                continue;
+            }
+            buffer.put(pos, CLEARED_HEADER);
+            forceQuietly(pos, RECORD_HEADER_SIZE);
+            pos += RECORD_HEADER_SIZE + length;
+        }
+        writePos = flushedPos;
+        nextSeq = durableSeq + 1;
+    }
+
+    private void forceQuietly(int pos, int length) {
+        try {
+            buffer.force(pos, length);
+        } catch (RuntimeException e) {
+            // Still failing; see discardUnflushed
+        }
+    }
+
+    // Up to maxEntries durable orders after the last one handed out, waiting up to timeoutMillis
+    // for one to arrive; empty on timeout or close. Called by the replayer only.
+    public synchronized List<Entry> nextBatch(int maxEntries, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (readSeq == durableSeq && !closed) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            wait(remaining);
+        }
+
+        List<Entry> batch = new ArrayList<>();
+        while (readSeq < durableSeq && batch.size() < maxEntries) {
+            readPos = skipWrap(readPos);
+            batch.add(readEntry(readPos, readSeq + 1));
+            readPos += RECORD_HEADER_SIZE + buffer.getInt(readPos);
+            readSeq++;
+        }
+        return batch;
+    }
+
+    private Entry readEntry(int recordPos, long seq) {
+        int pos = recordPos + RECORD_HEADER_SIZE;
+        int customerId = buffer.getInt(pos);
+        pos += 4;
+        String[] strings = new String[2];
+        for (int i = 0; i < strings.length; i++) {
+            short length = buffer.getShort(pos);
+            pos += 2;
+            if (length >= 0) {
+                strings[i] = getString(pos, length);
+                pos += length;
+            }
+        }
+        int lineCount = buffer.getInt(pos);
+        pos += 4;
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new OrderLine(buffer.getInt(pos), buffer.getInt(pos + 4)));
+            pos += 8;
+        }
+        return new Entry(seq, customerId, strings[0], strings[1], lines);
+    }
+
+    // Record that every order up to seq is in the database
+    public synchronized void acknowledge(long seq) {
+        if (seq <= ackedSeq) {
+            return;
+        }
+        // Free the space of the applied records
+        for (long applied = ackedSeq; applied < seq; applied++) {
+            headPos = skipWrap(headPos);
+            headPos += RECORD_HEADER_SIZE + buffer.getInt(headPos);
+        }
+        headPos = skipWrap(headPos);
+        ackedSeq = seq;
+        // Everything applied: start again from the top
+        if (ackedSeq == nextSeq - 1) {
+            buffer.putInt(HEADER_SIZE, 0);
+            headPos = writePos = flushedPos = readPos = HEADER_SIZE;
+        }
+        writeHead();
+        buffer.force(0, HEADER_SIZE + 4);
+    }
+
+    private void writeHead() {
+        buffer.putLong(ACKED_OFFSET, ackedSeq);
+        buffer.putLong(HEAD_SEQ_OFFSET, ackedSeq + 1);
+        buffer.putInt(HEAD_POS_OFFSET, headPos);
+    }
+
+    public synchronized long pendingCount() {
+        return nextSeq - 1 - ackedSeq;
+    }
+
+    // Stop accepting orders; what was appended is flushed first. Unreplayed orders stay in the file.
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,38 @@
+package app;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// One line of an order: a menu item and how many of it
+public record OrderLine(int menuItemId, int quantity) {
+    public OrderLine {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1.");
+        }
+    }
+
+    // Parse order codes as typed in the GUI, e.g. "1, 3x2, 3" -> item 1 x1, item 3 x3.
+    // Repeated items are merged into one line.
+    public static List<OrderLine> parseAll(String codes) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (String part : codes.split(",")) {
+            String code = part.trim().toLowerCase();
+            if (code.isEmpty()) {
+                continue;
+            }
+            int quantity = 1;
+            int x = code.indexOf('x');
+            if (x >= 0) {
+                quantity = Integer.parseInt(code.substring(x + 1).trim());
+                code = code.substring(0, x).trim();
+            }
+            quantities.merge(Integer.parseInt(code), quantity, Integer::sum);
+        }
+
+        List<OrderLine> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((menuItemId, quantity) -> lines.add(new OrderLine(menuItemId, quantity)));
+        return lines;
+    }
+}
@@ -0,0 +1,283 @@
+package app;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Windowed table model that loads typed rows a page at a time in the background.
+// Only the pages around what the JTable asks for are kept in memory; scrolling to an
+// unloaded row shows blanks until its page arrives. Pages are fetched with keyset
+// pagination on the table's first (key) column whenever the preceding key is known.
+//
+// applyChange() folds a single row change into the loaded pages: updates re-read just that
+// row, inserts and deletes shift the rows after them and drop only the pages they touch.
+//
+// Each row carries its version, which is not displayed, so edits can be checked against the
+// version the user saw (see getRow).
+//
+// All state is only touched on the Event Dispatch Thread; loads run on the
+// AsyncDatabaseService and hand their results back on the EDT.
+public class PagedTableModel<T extends TableRow> extends AbstractTableModel implements RowTableModel<T> {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int DEFAULT_MAX_PAGES = 10;
+
+    private final transient AsyncDatabaseService databaseService;
+    private final transient TableMeta<T> meta;
+    private final int pageSize;
+    private final int maxPages;
+
+    private final transient Map<Integer, List<T>> pages;
+    private final Map<Integer, Integer> pageStartKeys = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private final transient Set<CompletableFuture<?>> inFlight = new HashSet<>();
+    private int rowCount;
+    private int generation; // Bumped by reload()
+    private int layout;     // Bumped whenever loaded rows may have moved; page loads from before are dropped
+
+    public PagedTableModel(AsyncDatabaseService databaseService, TableMeta<T> meta) {
+        this(databaseService, meta, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public PagedTableModel(AsyncDatabaseService databaseService, TableMeta<T> meta, int pageSize, int maxPages) {
+        this.databaseService = databaseService;
+        this.meta = meta;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        // Access-ordered so the least recently viewed page is dropped first
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedTableModel.this.maxPages;
+            }
+        };
+    }
+
+    @Override
+    public String getTableName() {
+        return meta.name();
+    }
+
+    @Override
+    public TableMeta<T> getMeta() {
+        return meta;
+    }
+
+    // Drop everything and re-count the table; pages are fetched again as they are viewed.
+    // A reload supersedes any table load still in flight, including other models'.
+    @Override
+    public CompletableFuture<Integer> reload() {
+        cancelPending();
+        int loadGeneration = ++generation;
+        layout++;
+        pages.clear();
+        pageStartKeys.clear();
+        pending.clear();
+
+        CompletableFuture<Integer> count = databaseService.submitLatest("table-load",
+                db -> db.countRecords(meta.name()));
+        AsyncDatabaseService.onEdt(count, rows -> {
+            if (loadGeneration != generation) return;
+            rowCount = rows;
+            fireTableDataChanged();
+        }, ex -> ex.printStackTrace());
+        return count;
+    }
+
+    // Cancel page loads that have not delivered yet, e.g. when the model is being replaced
+    @Override
+    public void cancelPending() {
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        pending.clear();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return meta.columns().size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return meta.columns().get(column).name();
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        // Prefetch the next page once the viewer gets into the second half of this one
+        if (rowIndex % pageSize >= pageSize / 2) {
+            requestPage(page + 1);
+        }
+        int offset = rowIndex % pageSize;
+        return offset < rows.size() ? meta.display(rows.get(offset), columnIndex) : null;
+    }
+
+    // The loaded row at this index, as of its last load, or null if its page is not loaded
+    @Override
+    public T getRow(int rowIndex) {
+        List<T> rows = pages.get(rowIndex / pageSize);
+        int offset = rowIndex % pageSize;
+        return rows != null && offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    // Apply one row change from a ChangeFeed; falls back to reload() when the row is unknown
+    @Override
+    public void applyChange(TableChange change) {
+        if (!meta.name().equals(change.tableName())) {
+            return;
+        }
+        Integer key = change.intKey();
+        if (key == null || (change.keyColumn() != null && !meta.keyColumn().equals(change.keyColumn()))) {
+            reload();
+            return;
+        }
+        int index = indexOfKey(key);
+        switch (change.type()) {
+            case UPDATE -> {
+                if (index >= 0) {
+                    refreshRow(index, key);
+                }
+            }
+            case INSERT -> {
+                if (index >= 0) {
+                    refreshRow(index, key); // Already loaded, e.g. the page was fetched after the insert
+                    return;
+                }
+                // The new row goes before the first loaded row with a larger key, else at the end
+                int position = firstIndexAfter(key);
+                int insertAt = position >= 0 ? position : rowCount;
+                rowCount++;
+                dropPagesFrom(insertAt / pageSize);
+                fireTableRowsInserted(insertAt, insertAt);
+            }
+            case DELETE -> {
+                if (index < 0) {
+                    // Not loaded: we do not know which row went, but pages up to the next larger key stay valid
+                    int after = firstIndexAfter(key);
+                    rowCount = Math.max(0, rowCount - 1);
+                    dropPagesFrom(after >= 0 ? after / pageSize : 0);
+                    fireTableDataChanged();
+                    return;
+                }
+                rowCount--;
+                dropPagesFrom(index / pageSize);
+                fireTableRowsDeleted(index, index);
+            }
+        }
+    }
+
+    // Re-read one loaded row in place
+    private void refreshRow(int index, int key) {
+        int loadLayout = layout;
+        CompletableFuture<T> load = databaseService.submit(db -> db.getRecord(meta, key));
+        inFlight.add(load);
+        AsyncDatabaseService.onEdt(load, row -> {
+            inFlight.remove(load);
+            if (loadLayout != layout || row == null) return;
+            List<T> rows = pages.get(index / pageSize);
+            int offset = index % pageSize;
+            if (rows != null && offset < rows.size() && rows.get(offset).key() == key) {
+                rows.set(offset, row);
+                fireTableRowsUpdated(index, index);
+            }
+        }, ex -> inFlight.remove(load));
+    }
+
+    // Rows from this page on have shifted; forget them so they are fetched again when viewed
+    private void dropPagesFrom(int firstPage) {
+        pages.keySet().removeIf(page -> page >= firstPage);
+        pageStartKeys.keySet().removeIf(page -> page > firstPage);
+        pending.removeIf(page -> page >= firstPage);
+        layout++; // Page loads already in flight would install shifted rows
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+    }
+
+    private int indexOfKey(int key) {
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).key() == key) {
+                    return entry.getKey() * pageSize + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Index of the first loaded row whose key sorts after the given key, or -1
+    private int firstIndexAfter(int key) {
+        int best = -1;
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).key() > key) {
+                    int index = entry.getKey() * pageSize + i;
+                    if (best < 0 || index < best) {
+                        best = index;
+                    }
+                    break; // Rows within a page are in key order
+                }
+            }
+        }
+        return best;
+    }
+
+    private void requestPage(int page) {
+        if (page * pageSize >= rowCount || pages.containsKey(page) || !pending.add(page)) {
+            return;
+        }
+        int loadLayout = layout;
+        Integer afterKey = page == 0 ? null : pageStartKeys.get(page);
+        boolean keyset = page == 0 || afterKey != null;
+
+        CompletableFuture<List<T>> load = databaseService.submit(db -> keyset
+                ? db.getPage(meta, afterKey, pageSize)
+                : db.getPageAt(meta, page * pageSize, pageSize));
+        inFlight.add(load);
+        AsyncDatabaseService.onEdt(load, rows -> {
+            inFlight.remove(load);
+            installPage(loadLayout, page, rows);
+        }, ex -> {
+            // Typically back-pressure; the page is requested again on the next repaint
+            inFlight.remove(load);
+            if (loadLayout == layout) pending.remove(page);
+        });
+    }
+
+    private void installPage(int loadLayout, int page, List<T> rows) {
+        if (loadLayout != layout) return;
+        pending.remove(page);
+        pages.put(page, rows);
+        if (!rows.isEmpty()) {
+            pageStartKeys.put(page + 1, rows.get(rows.size() - 1).key());
+        }
+        int first = page * pageSize;
+        int last = Math.min(first + pageSize, rowCount) - 1;
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+}
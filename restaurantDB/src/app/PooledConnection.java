@@ -0,0 +1,91 @@
+package app;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// A connection borrowed from a ConnectionPool.
+// Use it in try-with-resources: close() returns it to the pool instead of closing it.
+public final class PooledConnection implements AutoCloseable {
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statements;
+    private volatile long borrowedAt;
+    private volatile long lastReleasedAt;
+    private volatile String borrowThread;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+    private boolean borrowed;
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statements = new StatementCache(connection, STATEMENT_CACHE_SIZE);
+        this.lastReleasedAt = System.currentTimeMillis();
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    // Prepared statements cached for this physical connection; do not close them
+    public StatementCache statements() {
+        return statements;
+    }
+
+    synchronized void markBorrowed(boolean captureSite) {
+        borrowed = true;
+        borrowedAt = System.currentTimeMillis();
+        borrowThread = Thread.currentThread().getName();
+        borrowSite = captureSite ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+    }
+
+    synchronized void markReleased() {
+        lastReleasedAt = System.currentTimeMillis();
+        borrowSite = null;
+    }
+
+    long borrowedAt() {
+        return borrowedAt;
+    }
+
+    long lastReleasedAt() {
+        return lastReleasedAt;
+    }
+
+    String borrowThread() {
+        return borrowThread;
+    }
+
+    // Null unless the pool captures borrow sites
+    Throwable borrowSite() {
+        return borrowSite;
+    }
+
+    // Returns true the first time a leak is reported for the current borrow
+    synchronized boolean reportLeak() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    void closePhysical() throws SQLException {
+        statements.closeAll();
+        connection.close();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!borrowed) {
+                return;
+            }
+            borrowed = false;
+        }
+        pool.release(this);
+    }
+}
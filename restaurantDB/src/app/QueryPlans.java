@@ -0,0 +1,137 @@
+package app;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Builds and memoizes the SQL text for DatabaseManager's CRUD operations.
+// Each plan is built once per (operation, table, columns) and then reused, so hot paths
+// skip string building and always hit the same entry in the per-connection StatementCache.
+// Table and column names cannot be bound as parameters, so they are validated as plain identifiers.
+final class QueryPlans {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private enum Kind { SELECT_ALL, SELECT_BY_KEY, COUNT, PAGE_FIRST, PAGE_AFTER, PAGE_OFFSET, INSERT, UPDATE_BY_KEY, DELETE_BY_KEY,
+        UPDATE_BY_KEY_VERSION, DELETE_BY_KEY_VERSION }
+
+    private record PlanKey(Kind kind, String table, List<String> columns, String keyColumn) {
+    }
+
+    private static final Map<PlanKey, String> PLANS = new ConcurrentHashMap<>();
+
+    private QueryPlans() {
+    }
+
+    static String selectAll(String table, String[] columns) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.SELECT_ALL, table, List.of(columns), null),
+                key -> "SELECT " + columnList(key.columns()) + " FROM " + identifier(key.table()));
+    }
+
+    static String selectByKey(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.SELECT_BY_KEY, table, List.of(columns), keyColumn),
+                key -> "SELECT " + columnList(key.columns()) + " FROM " + identifier(key.table())
+                        + " WHERE " + identifier(key.keyColumn()) + " = ?");
+    }
+
+    static String count(String table) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.COUNT, table, List.of(), null),
+                key -> "SELECT COUNT(*) FROM " + identifier(key.table()));
+    }
+
+    // Keyset pagination: first page, then the page after a given key
+    static String pageFirst(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.PAGE_FIRST, table, List.of(columns), keyColumn),
+                key -> "SELECT " + columnList(key.columns()) + " FROM " + identifier(key.table())
+                        + " ORDER BY " + identifier(key.keyColumn()) + " LIMIT ?");
+    }
+
+    static String pageAfter(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.PAGE_AFTER, table, List.of(columns), keyColumn),
+                key -> "SELECT " + columnList(key.columns()) + " FROM " + identifier(key.table())
+                        + " WHERE " + identifier(key.keyColumn()) + " > ?"
+                        + " ORDER BY " + identifier(key.keyColumn()) + " LIMIT ?");
+    }
+
+    // Fallback for jumping straight to a page whose preceding key is not known yet
+    static String pageOffset(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.PAGE_OFFSET, table, List.of(columns), keyColumn),
+                key -> "SELECT " + columnList(key.columns()) + " FROM " + identifier(key.table())
+                        + " ORDER BY " + identifier(key.keyColumn()) + " LIMIT ? OFFSET ?");
+    }
+
+    static String insert(String table, String[] columns) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.INSERT, table, List.of(columns), null),
+                key -> "INSERT INTO " + identifier(key.table()) + " (" + columnList(key.columns())
+                        + ") VALUES (" + placeholders(key.columns().size()) + ")");
+    }
+
+    static String updateByKey(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.UPDATE_BY_KEY, table, List.of(columns), keyColumn),
+                key -> {
+                    StringBuilder sql = new StringBuilder("UPDATE ").append(identifier(key.table())).append(" SET ");
+                    for (int i = 0; i < key.columns().size(); i++) {
+                        if (i > 0) {
+                            sql.append(", ");
+                        }
+                        sql.append(identifier(key.columns().get(i))).append(" = ?");
+                    }
+                    return sql.append(" WHERE ").append(identifier(key.keyColumn())).append(" = ?").toString();
+                });
+    }
+
+    static String deleteByKey(String table, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.DELETE_BY_KEY, table, List.of(), keyColumn),
+                key -> "DELETE FROM " + identifier(key.table()) + " WHERE " + identifier(key.keyColumn()) + " = ?");
+    }
+
+    // Optimistic variants: only match the row at the expected version, and bump it on update
+    static String updateByKeyAndVersion(String table, String[] columns, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.UPDATE_BY_KEY_VERSION, table, List.of(columns), keyColumn),
+                key -> {
+                    StringBuilder sql = new StringBuilder("UPDATE ").append(identifier(key.table())).append(" SET ");
+                    for (String column : key.columns()) {
+                        sql.append(identifier(column)).append(" = ?, ");
+                    }
+                    String version = DatabaseManager.VERSION_COLUMN;
+                    return sql.append(version).append(" = ").append(version).append(" + 1")
+                            .append(" WHERE ").append(identifier(key.keyColumn())).append(" = ? AND ")
+                            .append(version).append(" = ?").toString();
+                });
+    }
+
+    static String deleteByKeyAndVersion(String table, String keyColumn) {
+        return PLANS.computeIfAbsent(new PlanKey(Kind.DELETE_BY_KEY_VERSION, table, List.of(), keyColumn),
+                key -> "DELETE FROM " + identifier(key.table()) + " WHERE " + identifier(key.keyColumn())
+                        + " = ? AND " + DatabaseManager.VERSION_COLUMN + " = ?");
+    }
+
+    static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid table or column name: " + name);
+        }
+        return name;
+    }
+
+    private static String columnList(List<String> columns) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(identifier(columns.get(i)));
+        }
+        return sql.toString();
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("?");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package app;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Saves every printed struk under its own sequence number, e.g. receipts/struk-000042.txt, so two
+// customers with the same name no longer overwrite each other's bill. The file name is the bare
+// number and the order number is printed inside, so creating it with CREATE_NEW claims the number:
+// one taken by another till sharing the directory is skipped. The sequence carries on from the
+// highest number already in the directory, including older struk-NNNNNN-order-N.txt names.
+public class ReceiptStore {
+    private static final String PREFIX = "struk-";
+
+    private final Path directory;
+    private final AtomicLong sequence;
+
+    public ReceiptStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.sequence = new AtomicLong(highestSequence(directory));
+    }
+
+    private static long highestSequence(Path directory) throws IOException {
+        long highest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*.txt")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int end = name.indexOf('-', PREFIX.length());
+                try {
+                    highest = Math.max(highest, Long.parseLong(name.substring(PREFIX.length(), end < 0 ? name.length() - 4 : end)));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return highest;
+    }
+
+    // Write the struk to a new file and return its path
+    public Path save(String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (true) {
+            long number = sequence.incrementAndGet();
+            Path file = directory.resolve(String.format("%s%06d.txt", PREFIX, number));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                return file;
+            } catch (FileAlreadyExistsException e) {
+                // Taken by another till; try the next number
+            }
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,58 @@
+package app;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.function.LongConsumer;
+
+// Writes a table to CSV straight from a forward-only ResultSet into a buffered file channel,
+// so memory use does not depend on the size of the table. The file is written next to the
+// target and moved into place when complete, so a cancelled or failed export never leaves
+// a truncated report behind.
+public class ReportExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1_000;
+
+    private final DatabaseManager databaseManager;
+
+    public ReportExporter(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    // Export every row of the table; progress receives the number of rows written so far.
+    // Interrupting the calling thread cancels the export.
+    public long exportTable(String tableName, String[] columns, Path file, LongConsumer progress)
+            throws IOException, SQLException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] rows = {0};
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+             CsvWriter csv = new CsvWriter(writer)) {
+            csv.writeRecord(columns);
+            databaseManager.streamRecords(tableName, columns, row -> {
+                csv.writeRecord(row);
+                if (++rows[0] % PROGRESS_INTERVAL == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Report export cancelled.");
+                    }
+                    progress.accept(rows[0]);
+                }
+            });
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        progress.accept(rows[0]);
+        return rows[0];
+    }
+}
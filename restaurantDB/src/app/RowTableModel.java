@@ -0,0 +1,24 @@
+package app;
+
+import javax.swing.table.TableModel;
+import java.util.concurrent.CompletableFuture;
+
+// A table model over one editable table's typed rows, as used by ManagementGUI.
+// Implementations are EDT-confined.
+public interface RowTableModel<T extends TableRow> extends TableModel {
+    String getTableName();
+
+    TableMeta<T> getMeta();
+
+    // The row shown at this index, or null if it is not loaded yet
+    T getRow(int rowIndex);
+
+    // Re-read the table; completes with the row count
+    CompletableFuture<Integer> reload();
+
+    // Cancel loads that have not delivered yet, e.g. when the model is being replaced
+    void cancelPending();
+
+    // Fold one row change from a ChangeFeed into the model
+    void applyChange(TableChange change);
+}
@@ -0,0 +1,71 @@
+package app;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+// Formats Rupiah amounts held as long minor units (1/100 Rupiah), e.g. 125000050 -> "Rp 1.250.000,50".
+// Separators come from the locale once, at construction; appendTo writes digits straight into
+// the caller's StringBuilder, so formatting allocates nothing. Cents are only printed when
+// they are not zero. Instances are immutable and can be shared between threads.
+public final class RupiahFormat {
+    public static final Locale INDONESIA = Locale.forLanguageTag("id-ID");
+
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String symbol;
+
+    public RupiahFormat() {
+        this(INDONESIA);
+    }
+
+    public RupiahFormat(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.symbol = "Rp ";
+    }
+
+    public String format(long minor) {
+        return appendTo(new StringBuilder(16), minor).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder out, long minor) {
+        if (minor < 0) {
+            out.append('-');
+        }
+        out.append(symbol);
+        long units = Math.abs(minor / Money.MINOR_PER_UNIT);
+        int cents = (int) Math.abs(minor % Money.MINOR_PER_UNIT);
+        appendGrouped(out, units);
+        if (cents != 0) {
+            out.append(decimalSeparator).append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10));
+        }
+        return out;
+    }
+
+    // A rate in basis points as a percentage, e.g. 1000 -> "10", 750 -> "7,5"
+    public StringBuilder appendPercent(StringBuilder out, int basisPoints) {
+        out.append(basisPoints / 100);
+        int fraction = basisPoints % 100;
+        if (fraction != 0) {
+            out.append(decimalSeparator).append(fraction / 10);
+            if (fraction % 10 != 0) {
+                out.append(fraction % 10);
+            }
+        }
+        return out;
+    }
+
+    private void appendGrouped(StringBuilder out, long value) {
+        if (value < 1000) {
+            out.append(value);
+            return;
+        }
+        appendGrouped(out, value / 1000);
+        int group = (int) (value % 1000);
+        out.append(groupingSeparator)
+           .append((char) ('0' + group / 100))
+           .append((char) ('0' + group / 10 % 10))
+           .append((char) ('0' + group % 10));
+    }
+}
@@ -0,0 +1,185 @@
+package app;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sales and attendance figures for the analytics dashboard.
+// All aggregation is pushed down to SQL (GROUP BY), so only the summary rows cross the wire.
+// Daily item sales can also be read from the pre-aggregated sales_daily_summary table,
+// which DatabaseManager maintains inside each order transaction when enabled.
+public class SalesAnalytics {
+    public record ItemSales(int menuItemId, String itemName, long quantity, long revenueMinor) {
+    }
+
+    public record RevenueBucket(String bucket, long orders, long revenueMinor) {
+    }
+
+    public record Attendance(int employeeId, int present, int late, int absent) {
+        public int total() {
+            return present + late + absent;
+        }
+
+        public double presentRatio() {
+            return total() == 0 ? 0 : (double) present / total();
+        }
+
+        public double lateRatio() {
+            return total() == 0 ? 0 : (double) late / total();
+        }
+
+        public double absentRatio() {
+            return total() == 0 ? 0 : (double) absent / total();
+        }
+    }
+
+    private static final String TOP_ITEMS_SQL =
+            "SELECT m.menu_item_id, m.item_name, SUM(oi.quantity) AS qty, SUM(oi.quantity * oi.unit_price) AS revenue "
+            + "FROM order_items oi JOIN menu m ON m.menu_item_id = oi.menu_item_id "
+            + "GROUP BY m.menu_item_id, m.item_name ORDER BY qty DESC, m.menu_item_id LIMIT ?";
+    private static final String TOP_ITEMS_FROM_SUMMARY_SQL =
+            "SELECT m.menu_item_id, m.item_name, SUM(s.quantity) AS qty, SUM(s.revenue) AS revenue "
+            + "FROM sales_daily_summary s JOIN menu m ON m.menu_item_id = s.menu_item_id "
+            + "WHERE s.sales_date BETWEEN ? AND ? "
+            + "GROUP BY m.menu_item_id, m.item_name ORDER BY qty DESC, m.menu_item_id LIMIT ?";
+    private static final String REVENUE_BY_DAY_SQL =
+            "SELECT CAST(o.created_at AS DATE) AS bucket, COUNT(DISTINCT o.order_id) AS orders, "
+            + "SUM(oi.quantity * oi.unit_price) AS revenue "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id "
+            + "WHERE o.created_at >= ? AND o.created_at < ? "
+            + "GROUP BY CAST(o.created_at AS DATE) ORDER BY bucket";
+    private static final String REVENUE_BY_HOUR_SQL =
+            "SELECT HOUR(o.created_at) AS bucket, COUNT(DISTINCT o.order_id) AS orders, "
+            + "SUM(oi.quantity * oi.unit_price) AS revenue "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id "
+            + "WHERE o.created_at >= ? AND o.created_at < ? "
+            + "GROUP BY HOUR(o.created_at) ORDER BY bucket";
+    private static final String ATTENDANCE_SQL =
+            "SELECT employee_id, "
+            + "SUM(CASE WHEN status = 'Present' THEN 1 ELSE 0 END) AS present, "
+            + "SUM(CASE WHEN status = 'Late' THEN 1 ELSE 0 END) AS late, "
+            + "SUM(CASE WHEN status = 'Absent' THEN 1 ELSE 0 END) AS absent "
+            + "FROM employees GROUP BY employee_id ORDER BY employee_id";
+
+    // Daily summary maintenance, used from DatabaseManager's order transaction. Both backends
+    // speak MySQL's upsert (the embedded H2 runs in MySQL mode), so a row that another till
+    // created first is added to in the same statement.
+    private static final String SUMMARY_ADD_ORDER_SQL =
+            "INSERT INTO sales_daily_summary (sales_date, menu_item_id, quantity, revenue) "
+            + "SELECT CAST(o.created_at AS DATE), oi.menu_item_id, SUM(oi.quantity), SUM(oi.quantity * oi.unit_price) "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id WHERE o.order_id = ? "
+            + "GROUP BY CAST(o.created_at AS DATE), oi.menu_item_id "
+            + "ON DUPLICATE KEY UPDATE sales_daily_summary.quantity = sales_daily_summary.quantity + VALUES(quantity), "
+            + "sales_daily_summary.revenue = sales_daily_summary.revenue + VALUES(revenue)";
+    private static final String SUMMARY_REBUILD_SQL =
+            "INSERT INTO sales_daily_summary (sales_date, menu_item_id, quantity, revenue) "
+            + "SELECT CAST(o.created_at AS DATE), oi.menu_item_id, SUM(oi.quantity), SUM(oi.quantity * oi.unit_price) "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id "
+            + "GROUP BY CAST(o.created_at AS DATE), oi.menu_item_id";
+
+    private final ConnectionPool pool;
+
+    public SalesAnalytics(DatabaseManager databaseManager) {
+        this.pool = databaseManager.getPool();
+    }
+
+    // Best sellers by quantity over all order history
+    public List<ItemSales> topSellingItems(int limit) throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(TOP_ITEMS_SQL);
+            stmt.setInt(1, limit);
+            return readItemSales(stmt);
+        }
+    }
+
+    // Best sellers between two dates (inclusive), read from the pre-aggregated summary table
+    public List<ItemSales> topSellingItemsFromSummary(LocalDate from, LocalDate to, int limit) throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(TOP_ITEMS_FROM_SUMMARY_SQL);
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            stmt.setInt(3, limit);
+            return readItemSales(stmt);
+        }
+    }
+
+    private List<ItemSales> readItemSales(PreparedStatement stmt) throws SQLException {
+        List<ItemSales> items = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                items.add(new ItemSales(rs.getInt(1), rs.getString(2), rs.getLong(3), Money.toMinor(rs.getBigDecimal(4))));
+            }
+        }
+        return items;
+    }
+
+    // Revenue per calendar day for orders placed between from (inclusive) and to (exclusive)
+    public List<RevenueBucket> revenueByDay(LocalDate from, LocalDate to) throws SQLException {
+        return revenue(REVENUE_BY_DAY_SQL, from, to);
+    }
+
+    // Revenue per hour of day (0-23) for orders placed between from (inclusive) and to (exclusive)
+    public List<RevenueBucket> revenueByHour(LocalDate from, LocalDate to) throws SQLException {
+        return revenue(REVENUE_BY_HOUR_SQL, from, to);
+    }
+
+    private List<RevenueBucket> revenue(String sql, LocalDate from, LocalDate to) throws SQLException {
+        List<RevenueBucket> buckets = new ArrayList<>();
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(sql);
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    buckets.add(new RevenueBucket(rs.getString(1), rs.getLong(2), Money.toMinor(rs.getBigDecimal(3))));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    // Present/Late/Absent counts per employee from employees.status
+    public List<Attendance> attendance() throws SQLException {
+        List<Attendance> rows = new ArrayList<>();
+        try (PooledConnection pooled = pool.borrow()) {
+            PreparedStatement stmt = pooled.statements().prepare(ATTENDANCE_SQL);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Attendance(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Recompute sales_daily_summary from the full order history, e.g. after enabling it
+    public void rebuildDailySummary() throws SQLException {
+        try (PooledConnection pooled = pool.borrow()) {
+            Connection connection = pooled.connection();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM sales_daily_summary");
+                stmt.executeUpdate(SUMMARY_REBUILD_SQL);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Add one order's lines to sales_daily_summary; runs inside the caller's transaction
+    static void addOrderToDailySummary(PooledConnection pooled, int orderId) throws SQLException {
+        PreparedStatement stmt = pooled.statements().prepare(SUMMARY_ADD_ORDER_SQL);
+        stmt.setInt(1, orderId);
+        stmt.executeUpdate();
+    }
+}
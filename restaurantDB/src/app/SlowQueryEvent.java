@@ -0,0 +1,42 @@
+package app;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event for operations slower than -Drestaurant.metrics.slowMillis (default 200 ms).
+// Record with e.g. -XX:StartFlightRecording and look for "app.SlowQuery".
+@Name("app.SlowQuery")
+@Label("Slow Query")
+@Category({"Restaurant", "Database"})
+@Description("A database operation or UI action that exceeded the slow threshold")
+class SlowQueryEvent extends jdk.jfr.Event {
+    static final EventType TYPE = EventType.getEventType(SlowQueryEvent.class);
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed; // "duration" is taken by the event's own start/end timing
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Succeeded")
+    boolean success;
+
+    static void emit(String operation, long nanos, long rows, boolean success) {
+        SlowQueryEvent event = new SlowQueryEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.elapsed = nanos;
+            event.rows = rows;
+            event.success = success;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package app;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// Table model over a ColumnarSnapshot of the whole table, for search-as-you-type and
+// click-to-sort without touching the database. The snapshot is built on a database thread;
+// filtering and sorting only rebuild the int[] of row indexes shown.
+//
+// Row changes from the ChangeFeed re-read just the changed row, apply it to the snapshot in
+// place and report only that row to the table, so the selection and scroll position stay put.
+// All state is only touched on the Event Dispatch Thread.
+public class SnapshotTableModel<T extends TableRow> extends AbstractTableModel implements RowTableModel<T> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient AsyncDatabaseService databaseService;
+    private final transient TableMeta<T> meta;
+    private final transient Set<CompletableFuture<?>> inFlight = new HashSet<>();
+    private transient ColumnarSnapshot<T> snapshot;
+    private int[] view = new int[0];
+    private int generation;
+
+    private int filterColumn;
+    private String filter = "";
+    private boolean prefixOnly;
+    private int sortColumn = -1;
+    private boolean descending;
+
+    public SnapshotTableModel(AsyncDatabaseService databaseService, TableMeta<T> meta) {
+        this.databaseService = databaseService;
+        this.meta = meta;
+        // Search the first text column (e.g. customer_name) by default
+        this.filterColumn = firstTextColumn(meta);
+    }
+
+    private static int firstTextColumn(TableMeta<?> meta) {
+        for (int i = 0; i < meta.columns().size(); i++) {
+            if (meta.columns().get(i).type() == TableMeta.ColumnType.TEXT) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getTableName() {
+        return meta.name();
+    }
+
+    @Override
+    public TableMeta<T> getMeta() {
+        return meta;
+    }
+
+    // Load the whole table into a fresh snapshot; supersedes any table load still in flight
+    @Override
+    public CompletableFuture<Integer> reload() {
+        cancelPending();
+        int loadGeneration = ++generation;
+        CompletableFuture<ColumnarSnapshot<T>> load = databaseService.submitLatest("table-load",
+                db -> ColumnarSnapshot.of(meta, db.getAllRecords(meta)));
+        AsyncDatabaseService.onEdt(load, loaded -> {
+            if (loadGeneration != generation) return;
+            snapshot = loaded;
+            refreshView();
+        }, ex -> ex.printStackTrace());
+        return load.thenApply(ColumnarSnapshot::size);
+    }
+
+    @Override
+    public void cancelPending() {
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+    }
+
+    // Show only rows whose search column contains the text (or starts with it), ignoring case
+    public void setFilter(String text, boolean prefix) {
+        filter = text == null ? "" : text;
+        prefixOnly = prefix;
+        refreshView();
+    }
+
+    public String getFilterColumnName() {
+        return filterColumn < 0 ? null : meta.columns().get(filterColumn).name();
+    }
+
+    // Sort by a column; choosing the sorted column again flips the direction
+    public void sortBy(int column) {
+        if (column == sortColumn) {
+            descending = !descending;
+        } else {
+            sortColumn = column;
+            descending = false;
+        }
+        refreshView();
+    }
+
+    private void refreshView() {
+        view = buildView();
+        fireTableDataChanged();
+    }
+
+    private int[] buildView() {
+        return snapshot == null ? new int[0]
+                : snapshot.view(filterColumn, filterColumn < 0 ? null : filter, prefixOnly, sortColumn, descending);
+    }
+
+    // Put (or, for a null row, remove) one row and fire events for just the view rows it left
+    // and entered; with a sort or filter the row can move, appear or disappear
+    private void applyRow(int key, T row) {
+        int oldPosition = position(snapshot.indexOfKey(key));
+        int index;
+        if (row != null) {
+            index = snapshot.put(row);
+        } else if (snapshot.remove(key) >= 0) {
+            index = -1;
+        } else {
+            return;
+        }
+        view = buildView();
+        int newPosition = position(index);
+        if (oldPosition >= 0 && oldPosition == newPosition) {
+            fireTableRowsUpdated(newPosition, newPosition);
+            return;
+        }
+        if (oldPosition >= 0) {
+            fireTableRowsDeleted(oldPosition, oldPosition);
+        }
+        if (newPosition >= 0) {
+            fireTableRowsInserted(newPosition, newPosition);
+        }
+    }
+
+    // Where the view shows a snapshot row, or -1
+    private int position(int row) {
+        if (row < 0) {
+            return -1;
+        }
+        for (int i = 0; i < view.length; i++) {
+            if (view[i] == row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int getRowCount() {
+        return view.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return meta.columns().size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String name = meta.columns().get(column).name();
+        return column == sortColumn ? name + (descending ? " (desc)" : " (asc)") : name;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return snapshot.cell(view[rowIndex], columnIndex);
+    }
+
+    @Override
+    public T getRow(int rowIndex) {
+        return rowIndex < view.length ? snapshot.row(view[rowIndex]) : null;
+    }
+
+    @Override
+    public void applyChange(TableChange change) {
+        if (!meta.name().equals(change.tableName()) || snapshot == null) {
+            return;
+        }
+        Integer key = change.intKey();
+        if (key == null || (change.keyColumn() != null && !meta.keyColumn().equals(change.keyColumn()))) {
+            reload();
+            return;
+        }
+        if (change.type() == TableChange.Type.DELETE) {
+            applyRow(key, null);
+            return;
+        }
+        int loadGeneration = generation;
+        CompletableFuture<T> load = databaseService.submit(db -> db.getRecord(meta, key));
+        inFlight.add(load);
+        AsyncDatabaseService.onEdt(load, row -> {
+            inFlight.remove(load);
+            if (loadGeneration != generation) return;
+            applyRow(key, row);
+        }, ex -> inFlight.remove(load));
+    }
+}
@@ -0,0 +1,38 @@
+package app;
+
+import java.sql.SQLException;
+
+// Thrown by versioned updates and deletes when another terminal changed the row after it was read
+public class StaleRecordException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final String tableName;
+    private final String keyValue;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public StaleRecordException(String tableName, String keyValue, long expectedVersion, long currentVersion) {
+        super("Record " + keyValue + " in " + tableName + " was changed by another terminal (version "
+                + expectedVersion + " is now " + currentVersion + ").");
+        this.tableName = tableName;
+        this.keyValue = keyValue;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getKeyValue() {
+        return keyValue;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
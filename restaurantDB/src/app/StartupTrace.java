@@ -0,0 +1,32 @@
+package app;
+
+import java.lang.management.ManagementFactory;
+
+// Startup milestones, for measuring launch time (see StartupBenchmark).
+//   -Drestaurant.startup.trace=true         print "startup <milestone> <ms since JVM start> <epoch ms>"
+//                                           to stderr as each milestone is reached
+//   -Drestaurant.startup.exitAfter=<name>   exit as soon as that milestone is reached, e.g. to
+//                                           time a launch or record a class-data-sharing archive
+// Milestones: main, frameShown, servicesReady, firstTableLoaded.
+public final class StartupTrace {
+    private static final boolean TRACE = Boolean.getBoolean("restaurant.startup.trace");
+    private static final String EXIT_AFTER = System.getProperty("restaurant.startup.exitAfter");
+
+    private StartupTrace() {
+    }
+
+    public static void mark(String milestone) {
+        if (TRACE || Metrics.isEnabled()) {
+            // Only now, so a plain launch does not pay for loading the management classes
+            long now = System.currentTimeMillis();
+            long sinceStart = now - ManagementFactory.getRuntimeMXBean().getStartTime();
+            if (TRACE) {
+                System.err.println("startup " + milestone + " " + sinceStart + " " + now);
+            }
+            Metrics.recordNanos("startup." + milestone, sinceStart * 1_000_000);
+        }
+        if (milestone.equals(EXIT_AFTER)) {
+            System.exit(0); // Shutdown hooks still close the database
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package app;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-connection LRU cache of prepared statements, keyed by SQL text and whether the statement
+// returns generated keys (only INSERTs that need the new id should ask; see prepareReturningKeys).
+// Cached statements stay open between borrows; callers must not close them.
+// Not thread-safe: a pooled connection is only ever used by one borrower at a time.
+public final class StatementCache {
+    private final Connection connection;
+    private final LinkedHashMap<Key, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+
+    private record Key(String sql, boolean returnKeys) {
+    }
+
+    StatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(new Key(sql, false));
+    }
+
+    // For an INSERT whose auto-generated key is read back with getGeneratedKeys
+    public PreparedStatement prepareReturningKeys(String sql) throws SQLException {
+        return prepare(new Key(sql, true));
+    }
+
+    private PreparedStatement prepare(Key key) throws SQLException {
+        PreparedStatement stmt = statements.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            hits++;
+            stmt.clearParameters();
+            return stmt;
+        }
+        misses++;
+        stmt = key.returnKeys()
+                ? connection.prepareStatement(key.sql(), Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(key.sql());
+        statements.put(key, stmt);
+        return stmt;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    void closeAll() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package app;
+
+import java.sql.SQLException;
+
+// Where the restaurant data lives. DatabaseManager only ever sees a ConnectionPool, so the
+// backend decides the JDBC URL and how the schema is prepared.
+public interface StorageBackend {
+    String name();
+
+    // JDBC URL used when the configuration does not name one
+    String defaultUrl();
+
+    // Prepare the database after the pool is open, e.g. create the tables
+    void initialize(DatabaseManager databaseManager) throws SQLException;
+
+    // True when every writer runs inside this JVM, so changes can be observed without polling
+    boolean isInProcess();
+
+    // A configured URL for another driver (say jdbc:mysql: with the embedded backend) is ignored
+    // with a warning, so switching db.backend alone is enough
+    default ConnectionPool openPool(DatabaseConfig config) {
+        String url = defaultUrl();
+        if (config.url() != null) {
+            if (driverPrefix(config.url()).equalsIgnoreCase(driverPrefix(url))) {
+                url = config.url();
+            } else {
+                System.err.println("Ignoring db.url " + config.url() + ": the " + name()
+                        + " backend needs a different driver; using " + url);
+            }
+        }
+        return new ConnectionPool(url, config.user(), config.password(), config.poolSize());
+    }
+
+    // "jdbc:mysql:" of "jdbc:mysql://host/db"
+    private static String driverPrefix(String url) {
+        int colon = url.indexOf(':', url.indexOf(':') + 1);
+        return colon < 0 ? url : url.substring(0, colon + 1);
+    }
+
+    static StorageBackend forName(String name) {
+        return switch (name.toLowerCase()) {
+            case "mysql" -> new MySqlBackend();
+            case "embedded", "h2" -> new EmbeddedBackend();
+            default -> throw new IllegalArgumentException("Unknown storage backend: " + name);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package app;
+
+// A row-level change made through DatabaseManager.
+// keyValue is the affected row's key, or null when it is not known (e.g. an insert
+// into a table without generated keys).
+public record TableChange(Type type, String tableName, String keyColumn, String keyValue) {
+    public enum Type { INSERT, UPDATE, DELETE }
+
+    // The key as an int id, or null when it is unknown or not a number
+    public Integer intKey() {
+        if (keyValue == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(keyValue.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
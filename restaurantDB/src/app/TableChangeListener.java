@@ -0,0 +1,8 @@
+package app;
+
+// Notified after DatabaseManager successfully writes to a table.
+// Called on the thread that performed the write, so implementations must be quick and thread-safe.
+@FunctionalInterface
+public interface TableChangeListener {
+    void tableChanged(TableChange change);
+}
@@ -0,0 +1,190 @@
+package app;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Column metadata and the typed row mapper for each table the GUI edits.
+// Rows are read with getInt/getLong/getDate straight into records; money columns are selected
+// as ROUND(col * 100) so they arrive as long minor units without a BigDecimal per cell.
+// The version column is always selected last.
+//
+// Every column is either numeric (INT, MONEY in minor units, DATE as epoch day) or TEXT, read
+// from a row through number() or text(); ColumnarSnapshot stores them that way and RowBuilder
+// turns them back into a record.
+public final class TableMeta<T extends TableRow> {
+    public enum ColumnType { INT, TEXT, MONEY, DATE }
+
+    // Stands for SQL NULL in a numeric (DATE) column
+    public static final long NULL_NUMBER = Long.MIN_VALUE;
+
+    public record Column<T>(String name, ColumnType type, ToLongFunction<T> number, Function<T, String> text,
+                            List<String> choices) {
+        static <T> Column<T> number(String name, ColumnType type, ToLongFunction<T> number) {
+            return new Column<>(name, type, number, null, List.of());
+        }
+
+        static <T> Column<T> text(String name, Function<T, String> text, String... choices) {
+            return new Column<>(name, ColumnType.TEXT, null, text, List.of(choices));
+        }
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    // Rebuilds a record from column values; numbers and texts are indexed by column
+    @FunctionalInterface
+    interface RowBuilder<T> {
+        T build(long[] numbers, String[] texts, long version);
+    }
+
+    public static final TableMeta<Customer> CUSTOMERS = new TableMeta<>("customers", true, List.of(
+            Column.<Customer>number("customer_id", ColumnType.INT, Customer::id),
+            Column.<Customer>text("customer_name", Customer::name),
+            Column.<Customer>text("order_menu", Customer::orderMenu)),
+            rs -> new Customer(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getLong(4)),
+            (numbers, texts, version) -> new Customer((int) numbers[0], texts[1], texts[2], version));
+
+    public static final TableMeta<AttendanceRecord> EMPLOYEES = new TableMeta<>("employees", false, List.of(
+            Column.<AttendanceRecord>number("employee_id", ColumnType.INT, AttendanceRecord::employeeId),
+            Column.<AttendanceRecord>number("date", ColumnType.DATE,
+                    row -> row.date() == null ? NULL_NUMBER : row.date().toEpochDay()),
+            Column.<AttendanceRecord>text("status", AttendanceRecord::status, "Present", "Late", "Absent")),
+            rs -> {
+                Date date = rs.getDate(2);
+                return new AttendanceRecord(rs.getInt(1), date == null ? null : date.toLocalDate(),
+                        rs.getString(3), rs.getLong(4));
+            },
+            (numbers, texts, version) -> new AttendanceRecord((int) numbers[0],
+                    numbers[1] == NULL_NUMBER ? null : LocalDate.ofEpochDay(numbers[1]), texts[2], version));
+
+    public static final TableMeta<MenuItem> MENU = new TableMeta<>("menu", false, List.of(
+            Column.<MenuItem>number("menu_item_id", ColumnType.INT, MenuItem::id),
+            Column.<MenuItem>text("item_name", MenuItem::name),
+            Column.<MenuItem>number("price", ColumnType.MONEY, MenuItem::priceMinor)),
+            rs -> new MenuItem(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+            (numbers, texts, version) -> new MenuItem((int) numbers[0], texts[1], numbers[2], version));
+
+    private static final List<TableMeta<?>> ALL = List.of(CUSTOMERS, EMPLOYEES, MENU);
+
+    private final String name;
+    private final boolean generatedKey;
+    private final List<Column<T>> columns;
+    private final String[] columnNames;
+    private final RowMapper<T> mapper;
+    private final RowBuilder<T> builder;
+
+    final String selectAllSql;
+    final String selectByKeySql;
+    final String pageFirstSql;
+    final String pageAfterSql;
+    final String pageOffsetSql;
+
+    private TableMeta(String name, boolean generatedKey, List<Column<T>> columns, RowMapper<T> mapper,
+                      RowBuilder<T> builder) {
+        this.name = name;
+        this.generatedKey = generatedKey;
+        this.columns = columns;
+        this.mapper = mapper;
+        this.builder = builder;
+        this.columnNames = new String[columns.size()];
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            Column<T> column = columns.get(i);
+            columnNames[i] = column.name();
+            String identifier = QueryPlans.identifier(column.name());
+            select.append(column.type() == ColumnType.MONEY ? "ROUND(" + identifier + " * 100)" : identifier)
+                  .append(", ");
+        }
+        select.append(DatabaseManager.VERSION_COLUMN).append(" FROM ").append(QueryPlans.identifier(name));
+        String key = keyColumn();
+        this.selectAllSql = select + " ORDER BY " + key;
+        this.selectByKeySql = select + " WHERE " + key + " = ?";
+        this.pageFirstSql = select + " ORDER BY " + key + " LIMIT ?";
+        this.pageAfterSql = select + " WHERE " + key + " > ? ORDER BY " + key + " LIMIT ?";
+        this.pageOffsetSql = select + " ORDER BY " + key + " LIMIT ? OFFSET ?";
+    }
+
+    // Metadata for one of the editable tables
+    public static TableMeta<?> forName(String tableName) {
+        for (TableMeta<?> meta : ALL) {
+            if (meta.name.equals(tableName)) {
+                return meta;
+            }
+        }
+        throw new IllegalArgumentException("Unknown table: " + tableName);
+    }
+
+    public static String[] tableNames() {
+        String[] names = new String[ALL.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = ALL.get(i).name;
+        }
+        return names;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // The first column is the INT primary key
+    public String keyColumn() {
+        return columnNames[0];
+    }
+
+    // True when the database assigns the key, so it is not typed in when adding a row
+    public boolean isGeneratedKey() {
+        return generatedKey;
+    }
+
+    public List<Column<T>> columns() {
+        return columns;
+    }
+
+    public String[] columnNames() {
+        return columnNames.clone();
+    }
+
+    // Columns entered when adding a row
+    public List<Column<T>> inputColumns() {
+        return generatedKey ? columns.subList(1, columns.size()) : columns;
+    }
+
+    // The value shown in a cell
+    public Object display(T row, int column) {
+        Column<T> c = columns.get(column);
+        return c.type() == ColumnType.TEXT ? c.text().apply(row) : cell(c.type(), c.number().applyAsLong(row));
+    }
+
+    static Object cell(ColumnType type, long number) {
+        return switch (type) {
+            case INT -> (int) number;
+            case MONEY -> Money.format(number);
+            case DATE -> number == NULL_NUMBER ? null : LocalDate.ofEpochDay(number);
+            case TEXT -> throw new IllegalArgumentException("TEXT columns have no numeric value");
+        };
+    }
+
+    T build(long[] numbers, String[] texts, long version) {
+        return builder.build(numbers, texts, version);
+    }
+
+    T map(ResultSet rs) throws SQLException {
+        return mapper.map(rs);
+    }
+
+    List<T> mapAll(ResultSet rs, int expectedRows) throws SQLException {
+        List<T> rows = new ArrayList<>(expectedRows);
+        while (rs.next()) {
+            rows.add(mapper.map(rs));
+        }
+        return rows;
+    }
+}
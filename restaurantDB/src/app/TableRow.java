@@ -0,0 +1,8 @@
+package app;
+
+// A typed row of one of the editable tables, keyed by an INT id and carrying its row version
+public interface TableRow {
+    int key();
+
+    long version();
+}
@@ -0,0 +1,73 @@
+-- Schema for the myrestaurant database.
+-- Every statement is idempotent so the script can be re-applied on startup.
+
+CREATE TABLE IF NOT EXISTS customers (
+    customer_id   INT AUTO_INCREMENT PRIMARY KEY,
+    customer_name VARCHAR(100) NOT NULL,
+    order_menu    VARCHAR(100),
+    version       INT NOT NULL DEFAULT 0  -- Optimistic locking, see DatabaseManager.VERSION_COLUMN
+);
+
+CREATE TABLE IF NOT EXISTS employees (
+    employee_id INT PRIMARY KEY,
+    date        DATE,
+    status      VARCHAR(10),
+    version     INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS menu (
+    menu_item_id INT AUTO_INCREMENT PRIMARY KEY,
+    item_name    VARCHAR(100) NOT NULL,
+    price        DECIMAL(12, 2) NOT NULL,
+    version      INT NOT NULL DEFAULT 0
+);
+
+-- One row per order; a customer can place many orders
+CREATE TABLE IF NOT EXISTS orders (
+    order_id    INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (customer_id) REFERENCES customers (customer_id) ON DELETE CASCADE
+);  -- The foreign key also indexes orders by customer
+
+-- Order lines; unit_price is copied from the menu when the order is placed so later
+-- price changes do not rewrite old bills
+CREATE TABLE IF NOT EXISTS order_items (
+    order_id     INT NOT NULL,
+    menu_item_id INT NOT NULL,
+    quantity     INT NOT NULL,
+    unit_price   DECIMAL(12, 2) NOT NULL,
+    PRIMARY KEY (order_id, menu_item_id),
+    FOREIGN KEY (order_id) REFERENCES orders (order_id) ON DELETE CASCADE,
+    FOREIGN KEY (menu_item_id) REFERENCES menu (menu_item_id)
+);
+
+-- Pre-aggregated sales per day and menu item, kept up to date as orders are written
+-- when DatabaseManager.setSalesSummaryEnabled(true); rebuild with SalesAnalytics.rebuildDailySummary()
+CREATE TABLE IF NOT EXISTS sales_daily_summary (
+    sales_date   DATE NOT NULL,
+    menu_item_id INT NOT NULL,
+    quantity     BIGINT NOT NULL,
+    revenue      DECIMAL(16, 2) NOT NULL,
+    PRIMARY KEY (sales_date, menu_item_id)
+);
+
+-- Changes made by each terminal, polled by the others (see ChangeFeed); pruned after an hour
+CREATE TABLE IF NOT EXISTS change_log (
+    seq         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    origin      VARCHAR(36) NOT NULL,
+    table_name  VARCHAR(64) NOT NULL,
+    key_column  VARCHAR(64),
+    key_value   VARCHAR(100),
+    change_type VARCHAR(10) NOT NULL,
+    changed_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Orders applied from each till's local OrderJournal; makes replaying a journal idempotent.
+-- order_id is NULL for journaled orders the database rejected
+CREATE TABLE IF NOT EXISTS journal_applied (
+    journal_id VARCHAR(36) NOT NULL,
+    seq        BIGINT NOT NULL,
+    order_id   INT,
+    PRIMARY KEY (journal_id, seq)
+);
@@ -7,4 +7,7 @@
 module restaurantDB {
 	requires java.sql;
 	requires java.desktop;
-}
\ No newline at end of file
+	requires java.management;
+	requires jdk.httpserver;
+	requires jdk.jfr;
+}
\ No newline at end of file